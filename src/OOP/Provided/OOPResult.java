@@ -6,7 +6,7 @@ package OOP.Provided;
 public interface OOPResult {
 
     /**
-     * @return the result type, which is one of four possible type. See OOPTestResult.
+     * @return the result type, which is one of six possible types. See OOPTestResult.
      */
     OOPTestResult getResultType();
 
@@ -21,9 +21,11 @@ public interface OOPResult {
     boolean equals(Object obj);
 
     /**
-     * Four result types. Three error types, one for each definition in the exercise.
+     * Six result types. Three error types, one for each definition in the exercise, a TIMEOUT
+     * for a test that did not finish within its timeout, and NOT_RUN for a test that was skipped
+     * because its run was stopped.
      */
     enum OOPTestResult {
-        SUCCESS, FAILURE, ERROR, EXPECTED_EXCEPTION_MISMATCH
+        SUCCESS, FAILURE, ERROR, EXPECTED_EXCEPTION_MISMATCH, TIMEOUT, NOT_RUN
     }
 }
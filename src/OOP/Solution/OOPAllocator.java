@@ -0,0 +1,65 @@
+package OOP.Solution;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Resolves constructors that allocate a class's instances without running the class's own
+ * constructors (as deserialization does), for the objects whose fields are all overwritten right
+ * after they're allocated: the copies of a deep copy, and the holders of the backups.
+ * The JVM's factory of such constructors is loaded reflectively, since it's not a standard API;
+ * when it's unsupported, instances are allocated by their class's 0-args constructor.
+ * @see OOPDeepCopier
+ * @see OOPBackupPool
+ */
+final class OOPAllocator {
+
+    //Attribute: the JVM's factory of constructors that allocate objects without running their
+    //own constructors, and its method, or null if it's unsupported
+    private static final Object reflectionFactory;
+    private static final Method newConstructorForSerialization;
+
+    static {
+        Object factory = null;
+        Method method = null;
+        try {
+            Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+            factory = factoryClass.getMethod("getReflectionFactory").invoke(null);
+            method = factoryClass.getMethod("newConstructorForSerialization", Class.class,
+                    Constructor.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //The JVM does not support it: objects are allocated by their 0-args constructors
+            factory = null;
+            method = null;
+        }
+        reflectionFactory = factory;
+        newConstructorForSerialization = method;
+    }
+
+    private OOPAllocator() {
+    }
+
+    /**
+     * @param c: a class
+     * @return an accessible constructor that allocates the class's instances, without running the
+     * class's own constructors if the JVM supports it
+     * @throws NoSuchMethodException: in case the class's instances can't be allocated
+     */
+    static Constructor<?> of(Class<?> c) throws NoSuchMethodException {
+        if(newConstructorForSerialization != null) {
+            try {
+                Constructor<?> ctor = (Constructor<?>) newConstructorForSerialization.invoke(
+                        reflectionFactory, c, Object.class.getDeclaredConstructor());
+                if(ctor != null) {
+                    ctor.setAccessible(true);
+                    return ctor;
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                //Fall back to the class's 0-args constructor
+            }
+        }
+        Constructor<?> ctor = c.getDeclaredConstructor();
+        ctor.setAccessible(true);
+        return ctor;
+    }
+}
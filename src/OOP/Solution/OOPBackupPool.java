@@ -0,0 +1,68 @@
+package OOP.Solution;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayDeque;
+
+/**
+ * A small pool of the holders of a single run's SHALLOW backups, so that a backup does not
+ * construct a new instance of the test class before every OOPBefore and OOPAfter phase.
+ * A holder is an instance of the test class that's allocated without running its constructors
+ * (see {@link OOPAllocator}), since all of its fields are overwritten by the backup anyway. Once a
+ * backup is released, its holder's references are cleared (so the copies it held can be
+ * collected) and it's kept for the run's next backup. The pool is thread-safe, since the tests of
+ * a concurrent run share it.
+ * @see OOPSnapshotStrategy#release(Object)
+ */
+final class OOPBackupPool {
+
+    //Attribute: the maximal amount of idle holders that the pool keeps
+    private static final int maxIdle = 8;
+
+    //Attribute: the holders that are not used by any backup
+    private final ArrayDeque<Object> idle = new ArrayDeque<>();
+
+    //Attribute: the class of the pool's holders, and the constructor that allocates them, which
+    //are resolved by the first backup
+    private Class<?> holderClass;
+    private Constructor<?> allocator;
+
+    /**
+     * @param c: the test class
+     * @return an idle holder, or a newly allocated one if there's none
+     * @throws ReflectiveOperationException: in case the class's instances can't be allocated
+     */
+    Object acquire(Class<?> c) throws ReflectiveOperationException {
+        Constructor<?> ctor;
+        synchronized(this) {
+            if(holderClass != c) {
+                //We shouldn't get here more than once: a run's instances are of its test class
+                idle.clear();
+                holderClass = c;
+                allocator = OOPAllocator.of(c);
+            }
+            if(!idle.isEmpty()) {
+                return idle.pop();
+            }
+            ctor = allocator;
+        }
+        return ctor.newInstance();
+    }
+
+    /**
+     * Returns a holder to the pool, once its backup is no longer restored
+     * @param holder: the holder, which was acquired from this pool
+     */
+    void release(Object holder) {
+        OOPFieldPlan fieldPlan = OOPFieldPlan.of(holder.getClass());
+        for(int i = 0; i < fieldPlan.getFieldCount(); i++) {
+            if(!fieldPlan.isPrimitive(i)) {
+                fieldPlan.set(i, holder, null);
+            }
+        }
+        synchronized(this) {
+            if(holder.getClass() == holderClass && idle.size() < maxIdle) {
+                idle.push(holder);
+            }
+        }
+    }
+}
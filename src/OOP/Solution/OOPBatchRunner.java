@@ -0,0 +1,124 @@
+package OOP.Solution;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Runs several test classes concurrently, on a pool of worker threads.
+ * Classes are scheduled longest-first: the duration of every class's latest run is recorded, and
+ * the classes that took the longest start first, so a long class does not start last and extend
+ * the whole batch. Classes that were never run are scheduled before all the others.
+ * @see OOPUnitCore#runClasses(Collection, String, OOPRunOptions)
+ */
+final class OOPBatchRunner {
+
+    //Attribute: the duration of each class's latest run in nanoseconds, or -1 if it never ran
+    private static final ClassValue<AtomicLong> recordedDurations = new ClassValue<AtomicLong>() {
+        @Override
+        protected AtomicLong computeValue(Class<?> testClass) {
+            return new AtomicLong(-1);
+        }
+    };
+
+    private OOPBatchRunner() {
+    }
+
+    /**
+     * Runs the given test classes, and gathers their summaries
+     * Assumption: all the given classes are OOPUnit test classes
+     * @param testClasses: the test classes to be run. a class that's given several times is run
+     *                   only once
+     * @param tag: the tag of the tests that should run in each class
+     * @param options: the run options of each class. the amount of classes that run concurrently
+     *               is given by {@link OOPRunOptions#getClassParallelism()}
+     * @return the summary of the batch
+     */
+    static OOPBatchSummary run(Collection<Class<?>> testClasses, String tag,
+                               OOPRunOptions options) {
+        return run(testClasses, options.getClassParallelism(),
+                testClass -> OOPUnitCore.runClass(testClass, tag, options));
+    }
+
+    /**
+     * Runs the given test classes by a given runner, and gathers their summaries
+     * @param testClasses: the test classes to be run. a class that's given several times is run
+     *                   only once
+     * @param classParallelism: the amount of classes that run concurrently
+     * @param runner: runs a single test class, and returns its summary
+     * @return the summary of the batch
+     */
+    static OOPBatchSummary run(Collection<Class<?>> testClasses, int classParallelism,
+                               Function<Class<?>, OOPTestSummary> runner) {
+        List<Class<?>> distinctClasses = new ArrayList<>(new LinkedHashSet<>(testClasses));
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(classParallelism, Math.max(distinctClasses.size(), 1)));
+        long startTime = System.nanoTime();
+        Map<Class<?>, Future<OOPTestSummary>> futures = new HashMap<>();
+        try {
+            //The pool's queue is FIFO: submitting the longest classes first also starts them first
+            for(Class<?> testClass : longestFirst(distinctClasses)) {
+                futures.put(testClass, pool.submit(() -> runAndRecord(testClass, runner)));
+            }
+            Map<Class<?>, OOPTestSummary> summaries = new LinkedHashMap<>();
+            for(Class<?> testClass : distinctClasses) {
+                summaries.put(testClass, getSummary(futures.get(testClass)));
+            }
+            return new OOPBatchSummary(summaries, System.nanoTime() - startTime);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a single test class, and records the duration of the run
+     * @param testClass: the test class
+     * @param runner: runs the test class
+     * @return the class's summary
+     */
+    private static OOPTestSummary runAndRecord(Class<?> testClass,
+                                               Function<Class<?>, OOPTestSummary> runner) {
+        OOPTestSummary summary = runner.apply(testClass);
+        recordedDurations.get(testClass).set(summary.getDurationNanos());
+        return summary;
+    }
+
+    /**
+     * Sorts the given classes by their recorded durations, from the longest to the shortest
+     * @param testClasses: the classes to be sorted
+     * @return a new list of the classes: the classes that were never run come first (in the given
+     * order), followed by the rest of the classes, ordered by their latest duration
+     */
+    private static List<Class<?>> longestFirst(List<Class<?>> testClasses) {
+        List<Class<?>> sorted = new ArrayList<>(testClasses);
+        //The sort is stable, and unknown durations (-1) are sorted as the longest
+        sorted.sort(Comparator.comparingLong(c -> {
+            long duration = recordedDurations.get(c).get();
+            return (duration < 0) ? Long.MIN_VALUE : -duration;
+        }));
+        return sorted;
+    }
+
+    /**
+     * Waits for a class's run to finish
+     * @param future: the class's run
+     * @return the class's summary
+     * @throws IllegalArgumentException: in case the class couldn't be run
+     */
+    private static OOPTestSummary getSummary(Future<OOPTestSummary> future)
+            throws IllegalArgumentException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                //The class's run failed (as runClass would have failed): pass it onwards
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalArgumentException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package OOP.Solution;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class maps each test class of a batch run to its summary, and aggregates the results of
+ * all of the classes.
+ * @see OOPUnitCore#runClasses(java.util.Collection, String, OOPRunOptions)
+ * @see OOPTestSummary
+ */
+public class OOPBatchSummary {
+
+    //Attribute: a dictionary which maps each test class to its summary, in the given order
+    private Map<Class<?>, OOPTestSummary> summaries;
+
+    //Attribute: the wall-clock duration of the whole batch, in nanoseconds
+    private long durationNanos;
+
+    OOPBatchSummary(Map<Class<?>, OOPTestSummary> summaries, long durationNanos) {
+        this.summaries = Collections.unmodifiableMap(summaries);
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Helper function which is used in order to sum a count over all of the classes' summaries
+     * @param count: the desired count of a single summary
+     * @return the sum of the given count
+     */
+    private int sumResults(ToIntFunction<OOPTestSummary> count) {
+        int sum = 0;
+        for(OOPTestSummary summary : summaries.values()) {
+            sum += count.applyAsInt(summary);
+        }
+        return sum;
+    }
+
+    /**
+     * @return the test classes' summaries, in the order in which the classes were given
+     */
+    public Map<Class<?>, OOPTestSummary> getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * @param testClass: one of the batch's test classes
+     * @return the class's summary, or null if the class wasn't part of the batch
+     */
+    public OOPTestSummary getSummary(Class<?> testClass) {
+        return summaries.get(testClass);
+    }
+
+    /**
+     * @return the amount of tests that terminated with SUCCESS, in all of the classes
+     */
+    public int getNumSuccesses() {
+        return sumResults(OOPTestSummary::getNumSuccesses);
+    }
+
+    /**
+     * @return the amount of tests that terminated with FAILURE, in all of the classes
+     */
+    public int getNumFailures() {
+        return sumResults(OOPTestSummary::getNumFailures);
+    }
+
+    /**
+     * @return the amount of tests that terminated with EXPECTED_EXCEPTION_MISMATCH, in all of
+     * the classes
+     */
+    public int getNumExceptionMismatches() {
+        return sumResults(OOPTestSummary::getNumExceptionMismatches);
+    }
+
+    /**
+     * @return the amount of tests that terminated with ERROR, in all of the classes
+     */
+    public int getNumErrors() {
+        return sumResults(OOPTestSummary::getNumErrors);
+    }
+
+    /**
+     * @return the amount of tests that terminated with TIMEOUT, in all of the classes
+     */
+    public int getNumTimeouts() {
+        return sumResults(OOPTestSummary::getNumTimeouts);
+    }
+
+    /**
+     * @return the amount of tests that were not run (NOT_RUN), in all of the classes
+     */
+    public int getNumNotRun() {
+        return sumResults(OOPTestSummary::getNumNotRun);
+    }
+
+    /**
+     * @return the wall-clock duration of the whole batch, in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+}
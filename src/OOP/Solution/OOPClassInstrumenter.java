@@ -0,0 +1,420 @@
+package OOP.Solution;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Instruments the bytecode of an application class for test impact analysis: a call to
+ * {@link OOPImpactAgent#used(String)} with the class's name is inserted at the entry of each of
+ * its methods, constructors and static initializer, so the class is recorded by every test that
+ * executes any of its code (see {@link OOPImpactRecorder}).
+ * The call is inserted in front of the original code, which is otherwise unchanged, so the only
+ * offsets that change are the absolute ones: those of the exception table, of the line number and
+ * local variable tables, and of the stack map frames (including the offsets of their uninitialized
+ * objects). The inserted code is padded to a multiple of 4 bytes, so the alignment of switch
+ * instructions is kept. Type annotations of the code are dropped, since their offsets are never
+ * read by the JVM.
+ * No bytecode library is used: the class file is parsed only as far as these offsets require.
+ */
+final class OOPClassInstrumenter {
+
+    //Attribute: the inserted code: ldc_w <class name>, invokestatic OOPImpactAgent.used, nop, nop
+    private static final int insertedBytes = 8;
+
+    //Attribute: the constant pool tags that the instrumenter adds, or skips over
+    private static final int UTF8 = 1;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    //Attribute: the parsed class file
+    private final ByteBuffer in;
+
+    //Attribute: the strings of the class's Utf8 constants, by their index
+    private final Map<Integer, String> utf8 = new HashMap<>();
+
+    //Attribute: the indices of the constants that the inserted code refers to
+    private int nameIndex;
+    private int usedIndex;
+
+    private OOPClassInstrumenter(byte[] classFile) {
+        in = ByteBuffer.wrap(classFile);
+    }
+
+    /**
+     * @param classFile: the class file of an application class
+     * @param className: the class's binary name
+     * @return the instrumented class file, or null in case the class can't be instrumented (the
+     * class file is malformed, or its constant pool or one of its methods is too large)
+     */
+    static byte[] instrument(byte[] classFile, String className) {
+        try {
+            return new OOPClassInstrumenter(classFile).instrument(className);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] instrument(String className) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(in.capacity() + 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        if(in.getInt() != 0xCAFEBABE) {
+            throw new IllegalArgumentException();
+        }
+        out.writeInt(0xCAFEBABE);
+        //The minor and major versions
+        out.writeInt(in.getInt());
+        int constantCount = u2();
+        int poolStart = in.position();
+        readConstantPool(constantCount);
+        if(constantCount + 8 > 0xFFFF) {
+            throw new IllegalArgumentException();
+        }
+        out.writeShort(constantCount + 8);
+        out.write(in.array(), poolStart, in.position() - poolStart);
+        writeConstants(out, constantCount, className);
+        //The access flags, this class and its superclass
+        copy(out, 6);
+        int interfaceCount = u2();
+        out.writeShort(interfaceCount);
+        copy(out, 2 * interfaceCount);
+        //The fields
+        int fieldCount = u2();
+        out.writeShort(fieldCount);
+        for(int i = 0; i < fieldCount; i++) {
+            copy(out, 6);
+            copyAttributes(out);
+        }
+        int methodCount = u2();
+        out.writeShort(methodCount);
+        for(int i = 0; i < methodCount; i++) {
+            //The access flags, name and descriptor
+            copy(out, 6);
+            int attributeCount = u2();
+            out.writeShort(attributeCount);
+            for(int a = 0; a < attributeCount; a++) {
+                int name = u2();
+                int length = in.getInt();
+                if("Code".equals(utf8.get(name))) {
+                    byte[] code = instrumentCode(length);
+                    out.writeShort(name);
+                    out.writeInt(code.length);
+                    out.write(code);
+                } else {
+                    out.writeShort(name);
+                    out.writeInt(length);
+                    copy(out, length);
+                }
+            }
+        }
+        //The class's attributes
+        copyAttributes(out);
+        if(in.hasRemaining()) {
+            throw new IllegalArgumentException();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Skips over the constant pool, and keeps its Utf8 constants
+     * @param constantCount: the constant pool's count (the amount of its entries, plus one)
+     */
+    private void readConstantPool(int constantCount) {
+        for(int i = 1; i < constantCount; i++) {
+            int tag = in.get();
+            switch(tag) {
+                case UTF8:
+                    int length = u2();
+                    byte[] value = new byte[length];
+                    in.get(value);
+                    utf8.put(i, decode(value));
+                    break;
+                case 3: case 4: case 9: case METHOD_REF: case 11: case NAME_AND_TYPE: case 17:
+                case 18:
+                    skip(4);
+                    break;
+                case 5: case 6:
+                    //A long or a double takes two entries
+                    skip(8);
+                    i++;
+                    break;
+                case CLASS: case STRING: case 16: case 19: case 20:
+                    skip(2);
+                    break;
+                case 15:
+                    skip(3);
+                    break;
+                default:
+                    throw new IllegalArgumentException();
+            }
+        }
+    }
+
+    /**
+     * Appends the constants that the inserted code refers to
+     * @param out: the instrumented class file, right after the original constant pool
+     * @param first: the index of the first added constant
+     * @param className: the class's binary name
+     */
+    private void writeConstants(DataOutputStream out, int first, String className)
+            throws IOException {
+        out.writeByte(UTF8);
+        out.writeUTF(OOPImpactAgent.class.getName().replace('.', '/'));
+        out.writeByte(CLASS);
+        out.writeShort(first);
+        out.writeByte(UTF8);
+        out.writeUTF("used");
+        out.writeByte(UTF8);
+        out.writeUTF("(Ljava/lang/String;)V");
+        out.writeByte(NAME_AND_TYPE);
+        out.writeShort(first + 2);
+        out.writeShort(first + 3);
+        out.writeByte(METHOD_REF);
+        out.writeShort(first + 1);
+        out.writeShort(first + 4);
+        usedIndex = first + 5;
+        out.writeByte(UTF8);
+        out.writeUTF(className);
+        out.writeByte(STRING);
+        out.writeShort(first + 6);
+        nameIndex = first + 7;
+    }
+
+    /**
+     * @param length: the length of the Code attribute, whose content is read next
+     * @return the content of the instrumented Code attribute
+     */
+    private byte[] instrumentCode(int length) throws IOException {
+        int end = in.position() + length;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(length + insertedBytes);
+        DataOutputStream out = new DataOutputStream(bytes);
+        //The inserted code needs a single stack slot
+        out.writeShort(Math.max(1, u2()));
+        //The max locals
+        copy(out, 2);
+        int codeLength = in.getInt();
+        if(codeLength + insertedBytes > 0xFFFF) {
+            throw new IllegalArgumentException();
+        }
+        out.writeInt(codeLength + insertedBytes);
+        //ldc_w <class name>
+        out.writeByte(0x13);
+        out.writeShort(nameIndex);
+        //invokestatic OOPImpactAgent.used
+        out.writeByte(0xB8);
+        out.writeShort(usedIndex);
+        out.writeByte(0x00);
+        out.writeByte(0x00);
+        copy(out, codeLength);
+        int exceptionCount = u2();
+        out.writeShort(exceptionCount);
+        for(int i = 0; i < exceptionCount; i++) {
+            //The start, end and handler offsets, and the caught type
+            shift(out);
+            shift(out);
+            shift(out);
+            copy(out, 2);
+        }
+        int attributeCount = u2();
+        ByteArrayOutputStream attributes = new ByteArrayOutputStream();
+        DataOutputStream attributesOut = new DataOutputStream(attributes);
+        int written = 0;
+        for(int a = 0; a < attributeCount; a++) {
+            int name = u2();
+            int attributeLength = in.getInt();
+            int attributeEnd = in.position() + attributeLength;
+            String attributeName = String.valueOf(utf8.get(name));
+            if(attributeName.endsWith("TypeAnnotations")) {
+                skip(attributeLength);
+                continue;
+            }
+            attributesOut.writeShort(name);
+            attributesOut.writeInt(attributeLength + (attributeName.equals("StackMapTable") ?
+                    stackMapGrowth(attributeLength) : 0));
+            switch(attributeName) {
+                case "LineNumberTable":
+                    int lines = u2();
+                    attributesOut.writeShort(lines);
+                    for(int i = 0; i < lines; i++) {
+                        shift(attributesOut);
+                        copy(attributesOut, 2);
+                    }
+                    break;
+                case "LocalVariableTable":
+                case "LocalVariableTypeTable":
+                    int variables = u2();
+                    attributesOut.writeShort(variables);
+                    for(int i = 0; i < variables; i++) {
+                        shift(attributesOut);
+                        copy(attributesOut, 8);
+                    }
+                    break;
+                case "StackMapTable":
+                    shiftStackMap(attributesOut);
+                    break;
+                default:
+                    copy(attributesOut, attributeLength);
+            }
+            if(in.position() != attributeEnd) {
+                throw new IllegalArgumentException();
+            }
+            written++;
+        }
+        out.writeShort(written);
+        out.write(attributes.toByteArray());
+        if(in.position() != end) {
+            throw new IllegalArgumentException();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param length: the length of a StackMapTable attribute, whose content is read next
+     * @return the amount of bytes by which the attribute grows, since its first frame's offset
+     * might no longer fit in the frame's compact form
+     */
+    private int stackMapGrowth(int length) {
+        if(length < 3) {
+            return 0;
+        }
+        //The type of the first frame, which follows the frames' count
+        int first = in.get(in.position() + 2) & 0xFF;
+        if(first >= 128) {
+            //The frame's offset delta is not encoded in its type
+            return 0;
+        }
+        return ((first % 64) + insertedBytes > 63) ? 2 : 0;
+    }
+
+    /**
+     * Copies a StackMapTable attribute, shifting the offset of its first frame (the offsets of
+     * the other frames are relative to it) and the offsets of its uninitialized objects
+     * @param out: the instrumented Code attribute
+     */
+    private void shiftStackMap(DataOutputStream out) throws IOException {
+        int frameCount = u2();
+        out.writeShort(frameCount);
+        for(int i = 0; i < frameCount; i++) {
+            int type = in.get() & 0xFF;
+            int shift = (i == 0) ? insertedBytes : 0;
+            if(type < 64) {
+                writeCompactDelta(out, type + shift, 0, 251);
+            } else if(type < 128) {
+                writeCompactDelta(out, type - 64 + shift, 64, 247);
+                copyVerificationType(out);
+            } else if(type == 247) {
+                out.writeByte(type);
+                out.writeShort(u2() + shift);
+                copyVerificationType(out);
+            } else if(type >= 248 && type <= 251) {
+                out.writeByte(type);
+                out.writeShort(u2() + shift);
+            } else if(type >= 252 && type <= 254) {
+                out.writeByte(type);
+                out.writeShort(u2() + shift);
+                for(int l = 0; l < type - 251; l++) {
+                    copyVerificationType(out);
+                }
+            } else if(type == 255) {
+                out.writeByte(type);
+                out.writeShort(u2() + shift);
+                for(int part = 0; part < 2; part++) {
+                    //The frame's locals, and then its stack
+                    int count = u2();
+                    out.writeShort(count);
+                    for(int v = 0; v < count; v++) {
+                        copyVerificationType(out);
+                    }
+                }
+            } else {
+                //A reserved frame type
+                throw new IllegalArgumentException();
+            }
+        }
+    }
+
+    /**
+     * Writes a frame whose offset delta is encoded in its type, in its extended form if needed
+     * @param out: the instrumented Code attribute
+     * @param delta: the frame's offset delta
+     * @param base: the first type of the frame's compact form
+     * @param extended: the type of the frame's extended form
+     */
+    private static void writeCompactDelta(DataOutputStream out, int delta, int base, int extended)
+            throws IOException {
+        if(delta <= 63) {
+            out.writeByte(base + delta);
+        } else {
+            out.writeByte(extended);
+            out.writeShort(delta);
+        }
+    }
+
+    private void copyVerificationType(DataOutputStream out) throws IOException {
+        int tag = in.get();
+        out.writeByte(tag);
+        if(tag == 7) {
+            //An object, by its class's constant
+            copy(out, 2);
+        } else if(tag == 8) {
+            //An uninitialized object, by the offset of its new instruction
+            shift(out);
+        } else if(tag < 0 || tag > 8) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private void copyAttributes(DataOutputStream out) throws IOException {
+        int attributeCount = u2();
+        out.writeShort(attributeCount);
+        for(int a = 0; a < attributeCount; a++) {
+            copy(out, 2);
+            int length = in.getInt();
+            out.writeInt(length);
+            copy(out, length);
+        }
+    }
+
+    /**
+     * Copies a code offset, shifted past the inserted code
+     * @param out: the instrumented class file
+     */
+    private void shift(DataOutputStream out) throws IOException {
+        out.writeShort(u2() + insertedBytes);
+    }
+
+    private void copy(DataOutputStream out, int length) throws IOException {
+        if(length > in.remaining()) {
+            throw new IllegalArgumentException();
+        }
+        out.write(in.array(), in.position(), length);
+        in.position(in.position() + length);
+    }
+
+    private void skip(int length) {
+        in.position(in.position() + length);
+    }
+
+    private int u2() {
+        return in.getShort() & 0xFFFF;
+    }
+
+    /**
+     * @param value: the bytes of a Utf8 constant, in modified UTF-8
+     * @return the constant's string. Only the names of attributes are looked up, so characters
+     * beyond ASCII are not decoded exactly
+     */
+    private static String decode(byte[] value) {
+        char[] chars = new char[value.length];
+        for(int i = 0; i < value.length; i++) {
+            chars[i] = (char) (value[i] & 0xFF);
+        }
+        return new String(chars);
+    }
+}
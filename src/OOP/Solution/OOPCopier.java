@@ -0,0 +1,249 @@
+package OOP.Solution;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.function.UnaryOperator;
+
+/**
+ * Copies the values of a single runtime class, as a backup copies them (see
+ * {@link OOPUnitCore}'s backup method).
+ * The way in which a class's values are copied is resolved only once per class: its clone method
+ * and its copy constructor are looked up, bound to MethodHandles that were adapted to the
+ * {@code (Object)Object} type, and cached, so copying a value is a single virtual call.
+ * A value whose clone method throws (e.g. a CloneNotSupportedException) is copied by its class's
+ * copy constructor instead, and a value whose copy constructor throws is shared, as before.
+ * @see OOPFieldPlan.Kind
+ */
+abstract class OOPCopier {
+
+    //Attribute: the copier of each runtime class
+    private static final ClassValue<OOPCopier> copiers = new ClassValue<OOPCopier>() {
+        @Override
+        protected OOPCopier computeValue(Class<?> c) {
+            return resolve(c);
+        }
+    };
+
+    //Attribute: the copiers that share immutable and opaque values
+    private static final OOPCopier immutableCopier = new SharingCopier(OOPFieldPlan.Kind.IMMUTABLE);
+    private static final OOPCopier opaqueCopier = new SharingCopier(OOPFieldPlan.Kind.OPAQUE);
+
+    //Attribute: the type to which the clone methods and copy constructors are adapted
+    private static final MethodType copyType = MethodType.methodType(Object.class, Object.class);
+
+    //Attribute: the kind of the copied class
+    private final OOPFieldPlan.Kind kind;
+
+    private OOPCopier(OOPFieldPlan.Kind kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * @param c: the runtime class of a value
+     * @return the copier of the class's values
+     */
+    static OOPCopier of(Class<?> c) {
+        return copiers.get(c);
+    }
+
+    OOPFieldPlan.Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @param value: a non-null value of the copier's class
+     * @return a copy of the value, or the value itself if it's shared
+     */
+    abstract Object copy(Object value);
+
+    private static OOPCopier resolve(Class<?> c) {
+        switch(OOPFieldPlan.kindOf(c)) {
+            case IMMUTABLE:
+                return immutableCopier;
+            case CLONEABLE:
+                if(c.isArray()) {
+                    return new ArrayCopier(arrayCloner(c.getComponentType()));
+                }
+                MethodHandle clone = cloneHandle(c);
+                if(clone != null) {
+                    return new CloneCopier(clone, constructorCopier(c));
+                }
+                return constructorCopier(c);
+            case COPY_CONSTRUCTIBLE:
+                return constructorCopier(c);
+            default:
+                return opaqueCopier;
+        }
+    }
+
+    /**
+     * @param c: a non-array class
+     * @return the handle of the class's nearest clone method, or null if the class can't be cloned
+     * (its nearest clone method is Object's, and it's not Cloneable)
+     */
+    private static MethodHandle cloneHandle(Class<?> c) {
+        Method cloneMethod = null;
+        for(Class<?> current = c; current != null && cloneMethod == null;
+            current = current.getSuperclass()) {
+            for(Method method : current.getDeclaredMethods()) {
+                if(method.getName().equals("clone") && method.getParameterCount() == 0) {
+                    cloneMethod = method;
+                    break;
+                }
+            }
+        }
+        if(cloneMethod == null || (cloneMethod.getDeclaringClass() == Object.class &&
+                !Cloneable.class.isAssignableFrom(c))) {
+            return null;
+        }
+        try {
+            cloneMethod.setAccessible(true);
+            return MethodHandles.lookup().unreflect(cloneMethod).asType(copyType);
+        } catch (IllegalAccessException | RuntimeException e) {
+            //The clone method is not accessible (e.g. it's in a module that's not opened)
+            return null;
+        }
+    }
+
+    /**
+     * @param c: a class
+     * @return a copier that invokes the class's copy constructor, or a copier that shares the
+     * class's values if it has none
+     */
+    private static OOPCopier constructorCopier(Class<?> c) {
+        for(Constructor<?> ctor : c.getDeclaredConstructors()) {
+            if(ctor.getParameterCount() == 1 && ctor.getParameterTypes()[0] == c) {
+                try {
+                    ctor.setAccessible(true);
+                    return new ConstructorCopier(MethodHandles.lookup().unreflectConstructor(ctor)
+                            .asType(copyType));
+                } catch (IllegalAccessException | RuntimeException e) {
+                    //The copy constructor is not accessible
+                    break;
+                }
+            }
+        }
+        return opaqueCopier;
+    }
+
+    /**
+     * @param component: the component type of an array class
+     * @return a function that clones the arrays of the given component type
+     */
+    private static UnaryOperator<Object> arrayCloner(Class<?> component) {
+        if(!component.isPrimitive()) {
+            return value -> ((Object[]) value).clone();
+        }
+        if(component == int.class) {
+            return value -> ((int[]) value).clone();
+        }
+        if(component == long.class) {
+            return value -> ((long[]) value).clone();
+        }
+        if(component == double.class) {
+            return value -> ((double[]) value).clone();
+        }
+        if(component == float.class) {
+            return value -> ((float[]) value).clone();
+        }
+        if(component == boolean.class) {
+            return value -> ((boolean[]) value).clone();
+        }
+        if(component == byte.class) {
+            return value -> ((byte[]) value).clone();
+        }
+        if(component == char.class) {
+            return value -> ((char[]) value).clone();
+        }
+        return value -> ((short[]) value).clone();
+    }
+
+    /**
+     * Shares the values of an immutable or opaque class
+     */
+    private static final class SharingCopier extends OOPCopier {
+
+        private SharingCopier(OOPFieldPlan.Kind kind) {
+            super(kind);
+        }
+
+        @Override
+        Object copy(Object value) {
+            return value;
+        }
+    }
+
+    /**
+     * Clones arrays, without reflection
+     */
+    private static final class ArrayCopier extends OOPCopier {
+
+        //Attribute: the function that clones the arrays of the copied class
+        private final UnaryOperator<Object> cloner;
+
+        private ArrayCopier(UnaryOperator<Object> cloner) {
+            super(OOPFieldPlan.Kind.CLONEABLE);
+            this.cloner = cloner;
+        }
+
+        @Override
+        Object copy(Object value) {
+            return cloner.apply(value);
+        }
+    }
+
+    /**
+     * Clones values by their class's clone method
+     */
+    private static final class CloneCopier extends OOPCopier {
+
+        //Attribute: the clone method's handle, of type (Object)Object
+        private final MethodHandle clone;
+
+        //Attribute: the copier of the values that can't be cloned
+        private final OOPCopier fallback;
+
+        private CloneCopier(MethodHandle clone, OOPCopier fallback) {
+            super(OOPFieldPlan.Kind.CLONEABLE);
+            this.clone = clone;
+            this.fallback = fallback;
+        }
+
+        @Override
+        Object copy(Object value) {
+            try {
+                return (Object) clone.invokeExact(value);
+            } catch (Throwable e) {
+                //Can't clone the value: the clone method threw
+                return fallback.copy(value);
+            }
+        }
+    }
+
+    /**
+     * Copies values by their class's copy constructor
+     */
+    private static final class ConstructorCopier extends OOPCopier {
+
+        //Attribute: the copy constructor's handle, of type (Object)Object
+        private final MethodHandle ctor;
+
+        private ConstructorCopier(MethodHandle ctor) {
+            super(OOPFieldPlan.Kind.COPY_CONSTRUCTIBLE);
+            this.ctor = ctor;
+        }
+
+        @Override
+        Object copy(Object value) {
+            try {
+                return (Object) ctor.invokeExact(value);
+            } catch (Throwable e) {
+                //The copy constructor threw: the backup is the value itself
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package OOP.Solution;
+
+import java.lang.reflect.Constructor;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Deep-copies the object graphs that are reachable from the fields of a test class instance, for
+ * the DEEP snapshot mode (see {@link OOPSnapshotMode#DEEP}).
+ * The copy is iterative (so long chains of objects do not overflow the stack) and keeps the
+ * graph's shape: an object that's reachable through several paths (or through a cycle) is copied
+ * once. The way in which a class's instances are copied is resolved only once per class, into a
+ * {@link Shape}:
+ * 1) immutable values (see {@link OOPFieldPlan.Kind#IMMUTABLE}) are shared
+ * 2) primitive arrays are cloned, and reference arrays are copied element by element
+ * 3) the common java.util collections and maps are re-created and refilled with copied elements
+ *    (hashed and sorted ones are refilled only once their elements were copied completely)
+ * 4) other application objects are allocated without running their constructors (when the JVM
+ *    supports it, and by their 0-args constructor otherwise), and their fields are copied through
+ *    their field plan (see {@link OOPFieldPlan}); primitive fields are copied without boxing
+ * 5) other objects (e.g. instances of other platform classes) are copied as a SHALLOW backup
+ *    copies them (see {@link OOPCopier})
+ * A copier is used by a single snapshot or restore, on a single thread.
+ */
+final class OOPDeepCopier {
+
+    //Attribute: the strategy of the DEEP snapshot mode: a snapshot is an array of the deep copies
+    //of the instance's field values
+    static final OOPSnapshotStrategy snapshots = new OOPSnapshotStrategy() {
+        @Override
+        public Object snapshot(Object instance, OOPSnapshotStats stats) {
+            stats.recordSnapshot();
+            return copyFields(instance, null, stats);
+        }
+
+        @Override
+        public void restore(Object instance, Object snapshot, OOPSnapshotStats stats) {
+            copyFields(instance, (Object[]) snapshot, stats);
+        }
+    };
+
+    //Attribute: the shape of each class
+    private static final ClassValue<Shape> shapes = new ClassValue<Shape>() {
+        @Override
+        protected Shape computeValue(Class<?> c) {
+            return resolve(c);
+        }
+    };
+
+    //Attribute: the factories of the empty copies of the supported collections and maps
+    private static final Map<Class<?>, UnaryOperator<Object>> collectionFactories =
+            new HashMap<>();
+
+    //Attribute: the shapes of the values that are shared, and of those that are copied as a
+    //SHALLOW backup copies them
+    private static final Shape immutableShape = new Shape(Shape.Type.IMMUTABLE);
+    private static final Shape shallowShape = new Shape(Shape.Type.SHALLOW);
+
+    //Attribute: the prefixes of the platform classes, whose fields are never accessed
+    private static final String[] platformPrefixes = {"java.", "javax.", "jdk.", "sun.",
+            "com.sun."};
+
+    static {
+        collectionFactories.put(ArrayList.class,
+                source -> new ArrayList<>(((Collection<?>) source).size()));
+        collectionFactories.put(LinkedList.class, source -> new LinkedList<>());
+        collectionFactories.put(ArrayDeque.class,
+                source -> new ArrayDeque<>(((Collection<?>) source).size()));
+        collectionFactories.put(HashSet.class, source -> new HashSet<>());
+        collectionFactories.put(LinkedHashSet.class, source -> new LinkedHashSet<>());
+        collectionFactories.put(TreeSet.class,
+                source -> new TreeSet<>(((TreeSet<?>) source).comparator()));
+        collectionFactories.put(HashMap.class, source -> new HashMap<>());
+        collectionFactories.put(LinkedHashMap.class, source -> new LinkedHashMap<>());
+        collectionFactories.put(TreeMap.class,
+                source -> new TreeMap<>(((TreeMap<?, ?>) source).comparator()));
+        collectionFactories.put(IdentityHashMap.class, source -> new IdentityHashMap<>());
+        collectionFactories.put(ConcurrentHashMap.class, source -> new ConcurrentHashMap<>());
+    }
+
+    //Attribute: the copy of each object that was copied so far, by identity
+    private final IdentityHashMap<Object, Object> copies = new IdentityHashMap<>();
+
+    //Attribute: the copied objects whose contents were not copied yet, and their copies
+    private final ArrayDeque<Object> pendingSources = new ArrayDeque<>();
+    private final ArrayDeque<Object> pendingCopies = new ArrayDeque<>();
+
+    //Attribute: the copied collections and maps, along with their copied elements (keys and values
+    //of a map are interleaved), which are added once all the pending contents were copied
+    private final List<Object> collections = new ArrayList<>();
+    private final List<Object[]> collectionElements = new ArrayList<>();
+
+    //Attribute: the amounts of copied objects, of their estimated bytes and of shared values
+    private long objectsCopied = 0;
+    private long bytesCopied = 0;
+    private long valuesElided = 0;
+
+    private OOPDeepCopier() {
+    }
+
+    /**
+     * Deep-copies the declared fields of a test class instance (the same fields that a SHALLOW
+     * backup copies), with a single copier, so objects that several fields share are copied once
+     * @param instance: the test class instance
+     * @param values: the values to copy into the instance's fields, or null for copying the
+     *              instance's own field values
+     * @param stats: the run's snapshot stats, which count the copied values
+     * @return the copied values, in case they were copied from the instance, or null otherwise
+     */
+    private static Object[] copyFields(Object instance, Object[] values, OOPSnapshotStats stats) {
+        OOPFieldPlan fieldPlan = OOPFieldPlan.of(instance.getClass());
+        int fieldCount = fieldPlan.getFieldCount();
+        OOPDeepCopier copier = new OOPDeepCopier();
+        Object[] copied = (values == null) ? new Object[fieldCount] : null;
+        for(int i = 0; i < fieldCount; i++) {
+            Object value = (values == null) ? fieldPlan.get(i, instance) : values[i];
+            Object copy = fieldPlan.isImmutable(i) ? value : copier.copyValue(value);
+            if(values == null) {
+                copied[i] = copy;
+            } else {
+                fieldPlan.set(i, instance, copy);
+            }
+        }
+        copier.complete();
+        if(values != null) {
+            stats.recordRestored(fieldCount);
+        }
+        stats.record(copier.objectsCopied, copier.bytesCopied,
+                copier.valuesElided + fieldPlan.getImmutableCount());
+        return copied;
+    }
+
+    /**
+     * Copies a single value, whose contents are copied later, by {@link #complete()}
+     * @param value: the value, or null
+     * @return the value's copy, or the value itself if it's shared
+     */
+    private Object copyValue(Object value) {
+        if(value == null) {
+            return null;
+        }
+        Object copy = copies.get(value);
+        if(copy != null) {
+            return copy;
+        }
+        Shape shape = shapes.get(value.getClass());
+        switch(shape.type) {
+            case IMMUTABLE:
+                valuesElided++;
+                return value;
+            case SHALLOW:
+                copy = OOPCopier.of(value.getClass()).copy(value);
+                break;
+            case PRIMITIVE_ARRAY:
+                copy = OOPCopier.of(value.getClass()).copy(value);
+                break;
+            case REFERENCE_ARRAY:
+                //The clone has the same runtime type; its elements are replaced by their copies
+                copy = ((Object[]) value).clone();
+                pend(value, copy);
+                break;
+            case COLLECTION:
+                copy = shape.collectionFactory.apply(value);
+                pend(value, copy);
+                break;
+            case OBJECT:
+                copy = shape.allocate();
+                pend(value, copy);
+                break;
+            default:
+                //We shouldn't get here
+                throw new IllegalArgumentException();
+        }
+        if(copy != value) {
+            objectsCopied++;
+            bytesCopied += OOPFieldPlan.shallowSize(copy);
+        }
+        copies.put(value, copy);
+        return copy;
+    }
+
+    private void pend(Object source, Object copy) {
+        pendingSources.push(source);
+        pendingCopies.push(copy);
+    }
+
+    /**
+     * Copies the contents of all the pending copies, and then refills the copied collections
+     */
+    private void complete() {
+        while(!pendingSources.isEmpty()) {
+            Object source = pendingSources.pop();
+            Object copy = pendingCopies.pop();
+            Shape shape = shapes.get(source.getClass());
+            switch(shape.type) {
+                case REFERENCE_ARRAY:
+                    Object[] sourceArray = (Object[]) source;
+                    Object[] copyArray = (Object[]) copy;
+                    for(int i = 0; i < sourceArray.length; i++) {
+                        copyArray[i] = copyValue(sourceArray[i]);
+                    }
+                    break;
+                case COLLECTION:
+                    collections.add(copy);
+                    collectionElements.add(copyElements(source));
+                    break;
+                case OBJECT:
+                    shape.copyFields(this, source, copy);
+                    break;
+                default:
+                    //We shouldn't get here
+                    throw new IllegalArgumentException();
+            }
+        }
+        //Inner collections were discovered after the collections that contain them, and are
+        //refilled first, so a collection's elements are complete when they're hashed or compared
+        for(int i = collections.size() - 1; i >= 0; i--) {
+            refill(collections.get(i), collectionElements.get(i));
+        }
+        collections.clear();
+        collectionElements.clear();
+    }
+
+    /**
+     * @param source: a collection or a map
+     * @return the copies of the collection's elements, or of the map's interleaved keys and values
+     */
+    private Object[] copyElements(Object source) {
+        if(source instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) source;
+            Object[] elements = new Object[2 * map.size()];
+            int i = 0;
+            for(Map.Entry<?, ?> entry : map.entrySet()) {
+                elements[i++] = copyValue(entry.getKey());
+                elements[i++] = copyValue(entry.getValue());
+            }
+            return elements;
+        }
+        Object[] elements = ((Collection<?>) source).toArray();
+        for(int i = 0; i < elements.length; i++) {
+            elements[i] = copyValue(elements[i]);
+        }
+        return elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void refill(Object copy, Object[] elements) {
+        if(copy instanceof Map) {
+            Map<Object, Object> map = (Map<Object, Object>) copy;
+            for(int i = 0; i < elements.length; i += 2) {
+                map.put(elements[i], elements[i + 1]);
+            }
+        } else {
+            Collections.addAll((Collection<Object>) copy, elements);
+        }
+    }
+
+    private static Shape resolve(Class<?> c) {
+        if(OOPFieldPlan.kindOf(c) == OOPFieldPlan.Kind.IMMUTABLE) {
+            return immutableShape;
+        }
+        if(c.isArray()) {
+            return new Shape(c.getComponentType().isPrimitive() ? Shape.Type.PRIMITIVE_ARRAY :
+                    Shape.Type.REFERENCE_ARRAY);
+        }
+        UnaryOperator<Object> factory = collectionFactories.get(c);
+        if(factory != null) {
+            Shape shape = new Shape(Shape.Type.COLLECTION);
+            shape.collectionFactory = factory;
+            return shape;
+        }
+        for(String prefix : platformPrefixes) {
+            if(c.getName().startsWith(prefix)) {
+                return shallowShape;
+            }
+        }
+        try {
+            return objectShape(c);
+        } catch (NoSuchMethodException | RuntimeException e) {
+            //The class's fields or constructor are not accessible (e.g. a final field of a hidden
+            //class can't be set)
+            return shallowShape;
+        }
+    }
+
+    /**
+     * @param c: an application class
+     * @return the shape that copies the class's instances field by field
+     * @throws IllegalArgumentException: in case one of the class's fields can't be accessed
+     * @throws NoSuchMethodException: in case the class's instances can't be allocated
+     */
+    private static Shape objectShape(Class<?> c)
+            throws IllegalArgumentException, NoSuchMethodException {
+        Shape shape = new Shape(Shape.Type.OBJECT);
+        shape.allocator = OOPAllocator.of(c);
+        shape.fieldPlan = OOPFieldPlan.of(c);
+        return shape;
+    }
+
+    /**
+     * The resolved way in which the instances of a single class are deep-copied
+     */
+    private static final class Shape {
+
+        /**
+         * The ways in which instances are copied
+         */
+        enum Type {
+            IMMUTABLE, SHALLOW, PRIMITIVE_ARRAY, REFERENCE_ARRAY, COLLECTION, OBJECT
+        }
+
+        //Attribute: the way in which the class's instances are copied
+        private final Type type;
+
+        //Attribute: the factory of the empty copies of a collection
+        private UnaryOperator<Object> collectionFactory;
+
+        //Attribute: the constructor that allocates the copies of an object
+        private Constructor<?> allocator;
+
+        //Attribute: the plan of an object's fields, which covers its class's hierarchy
+        private OOPFieldPlan fieldPlan;
+
+        private Shape(Type type) {
+            this.type = type;
+        }
+
+        private Object allocate() {
+            try {
+                return allocator.newInstance();
+            } catch (ReflectiveOperationException e) {
+                //We shouldn't get here: the allocator was resolved with the shape
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        /**
+         * Copies the fields of an object into its copy
+         * @param copier: the copier of the fields' values
+         * @param source: the copied object
+         * @param copy: the object's copy
+         */
+        private void copyFields(OOPDeepCopier copier, Object source, Object copy) {
+            fieldPlan.copyPrimitives(copy, source);
+            for(int i = 0; i < fieldPlan.getFieldCount(); i++) {
+                if(!fieldPlan.isPrimitive(i)) {
+                    fieldPlan.set(i, copy, copier.copyValue(fieldPlan.get(i, source)));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package OOP.Solution;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors on which OOPUnit runs tests concurrently.
+ */
+final class OOPExecutors {
+
+    //Attribute: the factory of a virtual-thread-per-task executor, or null if it's not supported
+    private static final Method virtualThreadExecutorFactory = findVirtualThreadExecutorFactory();
+
+    private OOPExecutors() {
+    }
+
+    /**
+     * @return true iff the running JVM supports virtual threads
+     */
+    static boolean supportsVirtualThreads() {
+        return virtualThreadExecutorFactory != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task. When the running JVM
+     * does not support virtual threads, an executor of cached daemon (platform) threads is
+     * returned instead. In both cases, the executor does not bound the amount of concurrent tasks
+     * @return a new executor, which should be shut down by the caller
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        if(virtualThreadExecutorFactory != null) {
+            try {
+                return (ExecutorService) virtualThreadExecutorFactory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                //Virtual threads can't be started after all: fall back to platform threads
+            }
+        }
+        return Executors.newCachedThreadPool(daemonThreads("oopunit-test-"));
+    }
+
+    /**
+     * @param prefix: the prefix of the threads' names
+     * @return a factory of daemon threads, which are named by the given prefix and a counter
+     */
+    static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * @return {@code Executors.newVirtualThreadPerTaskExecutor}, if the running JVM has it
+     */
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            //The running JVM does not support virtual threads
+            return null;
+        }
+    }
+}
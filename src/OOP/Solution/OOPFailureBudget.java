@@ -0,0 +1,205 @@
+package OOP.Solution;
+
+import OOP.Provided.OOPResult;
+
+import java.util.*;
+
+/**
+ * Tracks the failed tests of a single runClass call, and stops the run once the amount of failed
+ * tests reaches the run's failure budget.
+ * A test fails when it terminates with FAILURE, ERROR, EXPECTED_EXCEPTION_MISMATCH or TIMEOUT.
+ * Once the run is stopped, tests that did not start yet are not run, tests that are still running
+ * are interrupted, and the results of both are replaced by NOT_RUN. A cancelled run is stopped in
+ * the same manner, regardless of its failures.
+ * The budget is shared between the threads of a concurrent run: its state is synchronized, so a
+ * test's result is either recorded before the run stops (and its listeners notified), or not at
+ * all. The listeners are never notified while the budget is held.
+ * @see OOPRunOptions#failureBudget(int)
+ */
+final class OOPFailureBudget {
+
+    //Attribute: the amount of failures that stops the run, or 0 if the run is never stopped
+    private final int budget;
+
+    //Attribute: the amount of tests that failed so far
+    private int failures = 0;
+
+    //Attribute: whether the run was stopped
+    private boolean exhausted = false;
+
+    //Attribute: whether the run was stopped by a cancellation, rather than by failed tests
+    private boolean cancelled = false;
+
+    //Attribute: the threads of the tests that are running at the moment
+    private final Set<Thread> running = new HashSet<>();
+
+    //Attribute: the tests whose results were recorded
+    private final Set<String> finished = new HashSet<>();
+
+    //Attribute: the amount of recorded results whose listeners are being notified
+    private int notifying = 0;
+
+    /**
+     * @param budget: the amount of failures that stops the run, or 0 for an unlimited budget
+     */
+    OOPFailureBudget(int budget) {
+        assert(budget >= 0);
+        this.budget = budget;
+    }
+
+    synchronized boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * @return true iff the run was stopped by a cancellation, so its results are incomplete
+     */
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Stops the run regardless of its failures, since it was cancelled, and interrupts all the
+     * running tests
+     * @see OOPRunFuture#cancel(boolean)
+     */
+    synchronized void cancel() {
+        if(exhausted) {
+            return;
+        }
+        exhausted = true;
+        cancelled = true;
+        for(Thread thread : running) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Registers the current thread as the thread of a starting test
+     * @return true iff the test should run, i.e. the run was not stopped yet
+     */
+    synchronized boolean start() {
+        if(exhausted) {
+            return false;
+        }
+        running.add(Thread.currentThread());
+        return true;
+    }
+
+    /**
+     * Records the result of a test that was started on the current thread, and notifies the
+     * run's listeners of it. When the test's failure exhausts the budget, the run is stopped, and
+     * all the other running tests are interrupted. In case the run was already stopped, the
+     * result is discarded.
+     * The listeners are notified after the budget is released, so they may stop the run (e.g. by
+     * cancelling it) without blocking the run's other tests
+     * @param event: the test's event, along with its result (or null if it has none)
+     * @param run: the run's context, whose listeners are notified of the result
+     * @return true iff the result was not discarded, i.e. the test was not interrupted by the
+     * run's stop
+     */
+    boolean finish(OOPTestEvent event, OOPRunContext run) {
+        OOPResult result = event.getResult();
+        if(!record(event.getTestName(), result)) {
+            return false;
+        }
+        if(result != null) {
+            try {
+                run.testFinished(event);
+            } finally {
+                notified();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the result of a test that was started on the current thread
+     * @param testName: the test's name
+     * @param result: the test's result, or null if it has none
+     * @return true iff the result was not discarded, since the run was already stopped
+     */
+    private synchronized boolean record(String testName, OOPResult result) {
+        running.remove(Thread.currentThread());
+        if(exhausted) {
+            return false;
+        }
+        if(result == null) {
+            return true;
+        }
+        finished.add(testName);
+        notifying++;
+        if(budget > 0 && isFailure(result) && ++failures >= budget) {
+            exhausted = true;
+            for(Thread thread : running) {
+                thread.interrupt();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ends the notification of a recorded result
+     */
+    private synchronized void notified() {
+        if(--notifying == 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Marks every given test whose result was not recorded as NOT_RUN, in case the run was
+     * stopped. A stopped run does not await its running tests, so the notifications of the
+     * results that were recorded before it stopped are awaited first, and the run's results are
+     * complete once this returns. The listeners are notified after the budget is released
+     * @param tests: the tests of the run
+     * @param run: the run's context, whose listeners are notified of the NOT_RUN results
+     */
+    void markNotRun(List<OOPMethodInvoker> tests, OOPRunContext run) {
+        List<OOPMethodInvoker> notRunTests = new ArrayList<>();
+        OOPResult notRun;
+        synchronized(this) {
+            if(!exhausted) {
+                return;
+            }
+            boolean interrupted = false;
+            while(notifying > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if(interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            notRun = new OOPResultImpl(OOPResult.OOPTestResult.NOT_RUN, cancelled ?
+                    "the run was cancelled" :
+                    "the run was stopped after " + failures + " failed test(s)");
+            for(OOPMethodInvoker test : tests) {
+                if(finished.add(test.getName())) {
+                    notRunTests.add(test);
+                }
+            }
+        }
+        for(OOPMethodInvoker test : notRunTests) {
+            run.testNotRun(test, notRun);
+        }
+    }
+
+    /**
+     * @param result: a test's result
+     * @return true iff the result counts against the failure budget
+     */
+    private static boolean isFailure(OOPResult result) {
+        switch(result.getResultType()) {
+            case FAILURE:
+            case ERROR:
+            case EXPECTED_EXCEPTION_MISMATCH:
+            case TIMEOUT:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package OOP.Solution;
+
+/**
+ * Restores the test class instance by an undo log of its field writes, for the JOURNAL snapshot
+ * mode (see {@link OOPSnapshotMode#JOURNAL}).
+ * A snapshot is the vector of the instance's current field values, which are neither copied nor
+ * examined, so taking it allocates nothing but the vector itself. A restore compares each field's
+ * current value with the vector (by identity for references, and by value for primitives), and
+ * writes back only the fields that were changed, so its writes are proportional to the change
+ * rather than to the size of the instance.
+ * Since values are not copied, a change that's made inside an object that a field refers to (e.g.
+ * adding to a list) is not rolled back; only the fields' assignments are.
+ */
+final class OOPFieldJournal {
+
+    //Attribute: the strategy of the JOURNAL snapshot mode: a snapshot is the instance's field
+    //vector
+    static final OOPSnapshotStrategy snapshots = new OOPSnapshotStrategy() {
+        @Override
+        public Object snapshot(Object instance, OOPSnapshotStats stats) {
+            stats.recordSnapshot();
+            return record(instance, stats);
+        }
+
+        @Override
+        public void restore(Object instance, Object snapshot, OOPSnapshotStats stats) {
+            rollBack(instance, (Object[]) snapshot, stats);
+        }
+    };
+
+    private OOPFieldJournal() {
+    }
+
+    /**
+     * @param instance: the test class instance
+     * @param stats: the run's snapshot stats, in which the (uncopied) values are counted as elided
+     * @return the values of the instance's fields, as backed-up by a SHALLOW backup
+     */
+    private static Object[] record(Object instance, OOPSnapshotStats stats) {
+        OOPFieldPlan fieldPlan = OOPFieldPlan.of(instance.getClass());
+        Object[] values = new Object[fieldPlan.getFieldCount()];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = fieldPlan.get(i, instance);
+        }
+        stats.record(0, 0, values.length);
+        return values;
+    }
+
+    /**
+     * Writes back the values of the fields that were changed since a snapshot was taken
+     * @param instance: the test class instance
+     * @param values: the snapshot's field vector
+     * @param stats: the run's snapshot stats, which count the written-back values
+     */
+    private static void rollBack(Object instance, Object[] values, OOPSnapshotStats stats) {
+        OOPFieldPlan fieldPlan = OOPFieldPlan.of(instance.getClass());
+        int restored = 0;
+        for(int i = 0; i < values.length; i++) {
+            Object current = fieldPlan.get(i, instance);
+            //Primitive values are boxed by the field's getter, and are compared by value
+            boolean changed = fieldPlan.isPrimitive(i) ? !current.equals(values[i]) :
+                    current != values[i];
+            if(changed) {
+                fieldPlan.set(i, instance, values[i]);
+                restored++;
+            }
+        }
+        stats.recordRestored(restored);
+    }
+}
@@ -0,0 +1,351 @@
+package OOP.Solution;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * The cached analysis of the fields that a backup copies, and of the types of their values.
+ * The fields of a class are analyzed only once: the plan covers the non-static fields that the
+ * class and all of its superclasses declare, and resolves each field once to MethodHandles that
+ * get and set it, so copying a field involves no reflective lookups or access checks. Primitive
+ * fields are copied from one instance to another by a single handle each, without boxing.
+ * The fields are resolved to MethodHandles rather than to VarHandles, since a VarHandle of a final
+ * field can't write it, while a restore must write back every field (including final ones); the
+ * handles are adapted to the same erased shapes as the ones that {@link OOPCopier} invokes.
+ * Each field whose declared type is immutable (see {@link Kind#IMMUTABLE}) is marked, so its value
+ * is shared by the backup instead of being copied. The values of the other fields are classified
+ * by their runtime class, once per class: immutable values are shared as well, while the rest are
+ * copied as described in {@link OOPUnitCore}'s backup method.
+ * The analysis also estimates the shallow size of the copied objects, so that a run can report
+ * how much its snapshots copied (see {@link OOPSnapshotStats}).
+ */
+final class OOPFieldPlan {
+
+    /**
+     * The kinds of the fields' values, by the way in which a backup copies them
+     */
+    enum Kind {
+        //A value that can't be changed: a primitive, a String, a boxed primitive, an enum, a
+        //Class, a BigInteger or BigDecimal, a UUID, or a value object (all of its fields are final,
+        //and are of immutable final types). It's never copied
+        IMMUTABLE,
+        //A value that's copied by its clone method (e.g. an array)
+        CLONEABLE,
+        //A value that's copied by its copy constructor
+        COPY_CONSTRUCTIBLE,
+        //A value that can't be copied, and is shared by the backup
+        OPAQUE
+    }
+
+    //Attribute: the field plan of each class
+    private static final ClassValue<OOPFieldPlan> plans = new ClassValue<OOPFieldPlan>() {
+        @Override
+        protected OOPFieldPlan computeValue(Class<?> c) {
+            return new OOPFieldPlan(c);
+        }
+    };
+
+    //Attribute: the kind of the values of each runtime class
+    private static final ClassValue<Kind> kinds = new ClassValue<Kind>() {
+        @Override
+        protected Kind computeValue(Class<?> c) {
+            return classify(c);
+        }
+    };
+
+    //Attribute: the estimated shallow size of the instances of each (non-array) class, in bytes
+    private static final ClassValue<Long> instanceSizes = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> c) {
+            long size = objectHeaderBytes;
+            for(Class<?> current = c; current != null; current = current.getSuperclass()) {
+                for(Field field : current.getDeclaredFields()) {
+                    if(!Modifier.isStatic(field.getModifiers())) {
+                        size += slotBytes(field.getType());
+                    }
+                }
+            }
+            return align(size);
+        }
+    };
+
+    //Attribute: the classes whose instances are immutable, although their fields are not final
+    //(e.g. lazily computed hash codes)
+    private static final Set<Class<?>> immutableClasses = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+            Long.class, Float.class, Double.class, Class.class, BigInteger.class,
+            BigDecimal.class, UUID.class));
+
+    //Attribute: the estimated sizes of an object's header and of an array's header, in bytes,
+    //assuming compressed references
+    private static final long objectHeaderBytes = 12;
+    private static final long arrayHeaderBytes = 16;
+
+    //Attribute: the fields that a backup copies: the class's own fields, followed by those of its
+    //superclasses
+    private final Field[] fields;
+
+    //Attribute: for each field, whether its declared type is immutable (its value is shared)
+    private final boolean[] immutable;
+
+    //Attribute: for each field, whether its declared type is primitive
+    private final boolean[] primitive;
+
+    //Attribute: the amount of fields whose declared type is immutable
+    private final int immutableCount;
+
+    //Attribute: the getters and setters of the fields, of types (Object)Object and
+    //(Object, Object)void. primitive values are boxed by them
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+
+    //Attribute: the copiers of the primitive fields, of type (Object target, Object source)void
+    private final MethodHandle[] primitiveCopiers;
+
+    /**
+     * Analyzes the fields that are declared by a class and by its superclasses, excluding static
+     * fields (which are shared by all of the class's instances, so a backup never copies them)
+     * @param c: the class
+     * @throws IllegalArgumentException: in case one of the fields can't be accessed
+     */
+    private OOPFieldPlan(Class<?> c) throws IllegalArgumentException {
+        List<Field> declared = new ArrayList<>();
+        for(Class<?> current = c; current != null && current != Object.class;
+            current = current.getSuperclass()) {
+            for(Field field : current.getDeclaredFields()) {
+                if(!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    declared.add(field);
+                }
+            }
+        }
+        fields = declared.toArray(new Field[0]);
+        immutable = new boolean[fields.length];
+        primitive = new boolean[fields.length];
+        getters = new MethodHandle[fields.length];
+        setters = new MethodHandle[fields.length];
+        List<MethodHandle> copiers = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        int count = 0;
+        for(int i = 0; i < fields.length; i++) {
+            Class<?> type = fields[i].getType();
+            primitive[i] = type.isPrimitive();
+            //A field of a non-final type might hold a mutable subclass
+            immutable[i] = type.isPrimitive() || ((Modifier.isFinal(type.getModifiers()) ||
+                    type.isEnum()) && kindOf(type) == Kind.IMMUTABLE);
+            count += immutable[i] ? 1 : 0;
+            try {
+                MethodHandle getter = lookup.unreflectGetter(fields[i]);
+                MethodHandle setter = lookup.unreflectSetter(fields[i]);
+                getters[i] = getter.asType(MethodType.methodType(Object.class, Object.class));
+                setters[i] = setter.asType(MethodType.methodType(void.class, Object.class,
+                        Object.class));
+                if(type.isPrimitive()) {
+                    //(target, source) -> target.field = source.field
+                    copiers.add(MethodHandles.filterArguments(
+                            setter.asType(MethodType.methodType(void.class, Object.class, type)),
+                            1, getter.asType(MethodType.methodType(type, Object.class))));
+                }
+            } catch (IllegalAccessException e) {
+                //The field can't be set (e.g. a final field of a hidden class)
+                throw new IllegalArgumentException(e);
+            }
+        }
+        immutableCount = count;
+        primitiveCopiers = copiers.toArray(new MethodHandle[0]);
+    }
+
+    /**
+     * @param c: a class
+     * @return the field plan of the fields that the class and its superclasses declare
+     * @throws IllegalArgumentException: in case one of the fields can't be accessed
+     */
+    static OOPFieldPlan of(Class<?> c) throws IllegalArgumentException {
+        return plans.get(c);
+    }
+
+    /**
+     * @param c: the runtime class of a value
+     * @return the kind of the class's values
+     */
+    static Kind kindOf(Class<?> c) {
+        return kinds.get(c);
+    }
+
+    Field[] getFields() {
+        return fields;
+    }
+
+    int getFieldCount() {
+        return fields.length;
+    }
+
+    /**
+     * @param index: the index of a field in {@link #getFields()}
+     * @return true iff the field's declared type is immutable, so its value is never copied
+     */
+    boolean isImmutable(int index) {
+        return immutable[index];
+    }
+
+    /**
+     * @param index: the index of a field in {@link #getFields()}
+     * @return true iff the field's declared type is primitive
+     */
+    boolean isPrimitive(int index) {
+        return primitive[index];
+    }
+
+    /**
+     * @param index: the index of a field in {@link #getFields()}
+     * @param instance: an instance of the plan's class
+     * @return the field's value in the instance (a primitive value is boxed)
+     */
+    Object get(int index, Object instance) {
+        try {
+            return (Object) getters[index].invokeExact(instance);
+        } catch (Throwable e) {
+            //We shouldn't get here: field accessors do not throw
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @param index: the index of a field in {@link #getFields()}
+     * @param instance: an instance of the plan's class
+     * @param value: the field's new value (a primitive value is unboxed)
+     */
+    void set(int index, Object instance, Object value) {
+        try {
+            setters[index].invokeExact(instance, value);
+        } catch (Throwable e) {
+            //We shouldn't get here: the value is of the field's type
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Copies the values of all of the primitive fields, without boxing them
+     * @param target: the instance into which the values are copied
+     * @param source: the instance from which the values are copied
+     */
+    void copyPrimitives(Object target, Object source) {
+        try {
+            for(MethodHandle primitiveCopier : primitiveCopiers) {
+                primitiveCopier.invokeExact(target, source);
+            }
+        } catch (Throwable e) {
+            //We shouldn't get here: field accessors do not throw
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    int getImmutableCount() {
+        return immutableCount;
+    }
+
+    /**
+     * @param value: a non-null object
+     * @return the estimated shallow size of the object, in bytes
+     */
+    static long shallowSize(Object value) {
+        Class<?> c = value.getClass();
+        if(c.isArray()) {
+            return align(arrayHeaderBytes +
+                    (long) Array.getLength(value) *
+                            slotBytes(c.getComponentType()));
+        }
+        return instanceSizes.get(c);
+    }
+
+    private static Kind classify(Class<?> c) {
+        if(c.isPrimitive() || isImmutable(c, new HashSet<>())) {
+            return Kind.IMMUTABLE;
+        }
+        if(c.isArray() || Cloneable.class.isAssignableFrom(c) || declaresClone(c)) {
+            return Kind.CLONEABLE;
+        }
+        try {
+            c.getDeclaredConstructor(c);
+            return Kind.COPY_CONSTRUCTIBLE;
+        } catch (NoSuchMethodException e) {
+            return Kind.OPAQUE;
+        }
+    }
+
+    /**
+     * @param c: a class
+     * @param visiting: the classes whose analysis is in progress, which are assumed to be
+     *                immutable (a value object may refer to its own type)
+     * @return true iff the class's instances are immutable
+     */
+    private static boolean isImmutable(Class<?> c, Set<Class<?>> visiting) {
+        if(immutableClasses.contains(c) || Enum.class.isAssignableFrom(c)) {
+            return true;
+        }
+        if(c.isArray() || c.isInterface()) {
+            return false;
+        }
+        if(!visiting.add(c)) {
+            return true;
+        }
+        for(Class<?> current = c; current != null; current = current.getSuperclass()) {
+            for(Field field : current.getDeclaredFields()) {
+                if(Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Class<?> type = field.getType();
+                if(!Modifier.isFinal(field.getModifiers()) || (!type.isPrimitive() &&
+                        !(Modifier.isFinal(type.getModifiers()) && isImmutable(type, visiting)))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param c: a class
+     * @return true iff one of the class's superclasses below Object declares a clone method
+     */
+    private static boolean declaresClone(Class<?> c) {
+        for(Class<?> current = c; current != null && current != Object.class;
+            current = current.getSuperclass()) {
+            for(Method method : current.getDeclaredMethods()) {
+                if(method.getName().equals("clone") && method.getParameterCount() == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long slotBytes(Class<?> type) {
+        if(type == long.class || type == double.class) {
+            return 8;
+        }
+        if(type == int.class || type == float.class) {
+            return 4;
+        }
+        if(type == short.class || type == char.class) {
+            return 2;
+        }
+        if(type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        //A compressed reference
+        return 4;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
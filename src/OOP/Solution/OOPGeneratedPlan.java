@@ -0,0 +1,38 @@
+package OOP.Solution;
+
+/**
+ * A test class's plan that was generated at compile time by {@link OOPTestPlanProcessor}.
+ * The generated plan of a test class {@code p.C} is named {@code p.C$OOPPlan} (for a nested test
+ * class {@code p.O.C} - {@code p.O$C$OOPPlan}), and describes the class's OOPUnit methods without
+ * any runtime discovery: it lists each method's name and annotation values, and invokes it
+ * directly whenever the method is accessible from the generated class.
+ * runClass uses the generated plan of a test class when one exists, and falls back to reflection
+ * otherwise.
+ * @see OOPPlanBuilder
+ */
+public interface OOPGeneratedPlan {
+
+    //Attribute: the suffix that's appended to a test class's binary name to name its plan
+    String planSuffix = "$OOPPlan";
+
+    /**
+     * Describes the test class's OOPUnit methods and exception rule to a given builder. The
+     * methods of each annotation type are described in the order in which they should run (tests
+     * are then sorted by the builder, if the class is ordered)
+     * @param plan: the builder of the test class's plan
+     */
+    void describe(OOPPlanBuilder plan);
+
+    /**
+     * Invokes a single OOPUnit method on an instance of its test class
+     */
+    @FunctionalInterface
+    interface Invoker {
+
+        /**
+         * @param target: the test class instance on which the method is invoked
+         * @throws Throwable: the exception that was thrown by the invoked method, as-is
+         */
+        void invoke(Object target) throws Throwable;
+    }
+}
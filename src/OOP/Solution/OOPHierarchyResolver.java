@@ -0,0 +1,149 @@
+package OOP.Solution;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Resolves which of the OOPUnit annotated methods in a class's hierarchy should be invoked, i.e.
+ * excludes the methods that are overridden by a method of a subclass.
+ * A method overrides another method iff they have the same name, and the overridden method is
+ * neither static nor private. Static and private methods are never overridden.
+ *
+ * Every class is resolved only once: a class's resolution consists of its own OOPUnit methods,
+ * followed by its superclass's (cached) resolution, without the methods that it overrides. This
+ * way, classes that extend the same test class (e.g. TestOrderedInher and TestOrdered) share the
+ * superclass's resolution rather than walking its hierarchy again.
+ * @see #resolve(Class)
+ */
+final class OOPHierarchyResolver {
+
+    //Attribute: the supported OOPUnit method annotations
+    private static final List<Class<? extends Annotation>> OOPUnitAnnotations =
+            Arrays.asList(OOPSetup.class, OOPBefore.class, OOPTest.class, OOPAfter.class);
+
+    //Attribute: the resolutions cache, which lazily resolves each class in the hierarchy once
+    private static final ClassValue<List<ResolvedMethod>> resolutions =
+            new ClassValue<List<ResolvedMethod>>() {
+        @Override
+        protected List<ResolvedMethod> computeValue(Class<?> c) {
+            return resolveHierarchy(c);
+        }
+    };
+
+    private OOPHierarchyResolver() {
+    }
+
+    /**
+     * Returns the OOPUnit methods that should be invoked for a given class
+     * @param c: the class whose hierarchy is resolved
+     * @return an unmodifiable list of the methods that aren't overridden, ordered from the top of
+     * the hierarchy tree to the bottom
+     */
+    static List<ResolvedMethod> resolve(Class<?> c) {
+        List<ResolvedMethod> resolution = resolutions.get(c);
+        List<ResolvedMethod> topDown = new ArrayList<>(resolution);
+        Collections.reverse(topDown);
+        return Collections.unmodifiableList(topDown);
+    }
+
+    /**
+     * Resolves a single class on top of its superclass's resolution
+     * @param c: the class to be resolved
+     * @return an unmodifiable list of the methods that aren't overridden, ordered from the bottom
+     * of the hierarchy tree to the top
+     */
+    private static List<ResolvedMethod> resolveHierarchy(Class<?> c) {
+        if(c.getSuperclass() == null) {
+            //Top of the hierarchy tree (Object, interfaces and primitives): no OOPUnit methods
+            return Collections.emptyList();
+        }
+        List<ResolvedMethod> resolution = new ArrayList<>();
+        //The names of the methods that were already resolved: these override any method by name
+        Set<String> resolvedNames = new HashSet<>();
+        for(Method m : c.getDeclaredMethods()) {
+            Annotation methodOOPAnnotation = getOOPUnitAnnotation(m);
+            if(methodOOPAnnotation == null) {
+                //Current method isn't part of the OOPUnit framework
+                continue;
+            }
+            ResolvedMethod current = new ResolvedMethod(m, methodOOPAnnotation);
+            if(current.isOverridable() && resolvedNames.contains(current.getName())) {
+                //Another method with the same name was already resolved in this class
+                continue;
+            }
+            resolution.add(current);
+            resolvedNames.add(current.getName());
+        }
+        for(ResolvedMethod inherited : resolutions.get(c.getSuperclass())) {
+            if(!inherited.isOverridable() || !resolvedNames.contains(inherited.getName())) {
+                //The superclass's method isn't overridden by this class: it should be invoked
+                resolution.add(inherited);
+            }
+        }
+        return Collections.unmodifiableList(resolution);
+    }
+
+    /**
+     * Returns the correct OOPUnit annotation for a given method.
+     * Assumption: a method will not be annotated by several OOPUnit annotations
+     * @param m: the method to be checked
+     * @return the correct OOPUnit annotation if exists, or null otherwise
+     */
+    private static Annotation getOOPUnitAnnotation(Method m) {
+        for (Annotation annotation : m.getDeclaredAnnotations()) {
+            if(OOPUnitAnnotations.contains(annotation.annotationType())) {
+                //Found an OOPUnit annotation for this method
+                return annotation;
+            }
+        }
+        //The method is not part of the OOPUnit framework
+        return null;
+    }
+
+    /**
+     * Simple record type that serves as wrapper for a resolved method.
+     * Contains the method itself, its OOPUnit annotation, and its signature key: its name, and
+     * whether it can be overridden (computed once from the method's modifiers' bits)
+     */
+    static final class ResolvedMethod {
+
+        //Attribute: the modifiers of a method that can't be overridden
+        private static final int notOverridable = Modifier.STATIC | Modifier.PRIVATE;
+
+        private final Method method;
+        private final Annotation annotation;
+        private final String name;
+        private final boolean overridable;
+
+        private ResolvedMethod(Method method, Annotation annotation) {
+            method.setAccessible(true);
+            this.method = method;
+            this.annotation = annotation;
+            this.name = method.getName();
+            this.overridable = (method.getModifiers() & notOverridable) == 0;
+        }
+
+        Method getMethod() {
+            return method;
+        }
+
+        Annotation getAnnotation() {
+            return annotation;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        boolean isOverridable() {
+            return overridable;
+        }
+
+        @Override
+        public String toString() {
+            return method.toString();
+        }
+    }
+}
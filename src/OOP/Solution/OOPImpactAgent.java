@@ -0,0 +1,104 @@
+package OOP.Solution;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An optional java agent, which records the application classes that each test uses, for test
+ * impact analysis (see {@link OOPRunOptions#impactMap(java.nio.file.Path)}).
+ * The agent is installed by packaging it in a jar whose manifest declares
+ * {@code Premain-Class: OOP.Solution.OOPImpactAgent} (and {@code Agent-Class} along with
+ * {@code Can-Retransform-Classes: true}, for attaching it to a running JVM), and by running the
+ * tests with {@code -javaagent:<jar>}.
+ * The agent instruments every application class as it's loaded (see
+ * {@link OOPClassInstrumenter}), so that entering any of the class's code reports the class to
+ * the test that's running. When it's attached, the application classes that were already loaded
+ * are retransformed; those that can't be are recorded by every test.
+ * Without the agent no classes are recorded, and every test is affected by any change.
+ * @see OOPImpactRecorder
+ */
+public final class OOPImpactAgent {
+
+    //Attribute: whether the agent was installed in this JVM
+    private static volatile boolean installed = false;
+
+    private OOPImpactAgent() {
+    }
+
+    public static void premain(String args, Instrumentation instrumentation) {
+        install(instrumentation);
+    }
+
+    public static void agentmain(String args, Instrumentation instrumentation) {
+        install(instrumentation);
+    }
+
+    /**
+     * @return true iff the agent was installed in this JVM
+     */
+    public static boolean isInstalled() {
+        return installed;
+    }
+
+    /**
+     * Called by the code of the instrumented classes as it's entered. It's not meant to be called
+     * otherwise
+     * @param className: the binary name of the class whose code was entered
+     */
+    public static void used(String className) {
+        OOPImpactRecorder.used(className);
+    }
+
+    private static synchronized void install(Instrumentation instrumentation) {
+        if(installed) {
+            return;
+        }
+        //The classes that the transformer uses are loaded before it's added, since a class that's
+        //loaded while it transforms would be transformed by it recursively
+        OOPImpactRecorder.isApplicationClass("");
+        OOPClassInstrumenter.instrument(new byte[0], "");
+        boolean retransform = instrumentation.isRetransformClassesSupported();
+        instrumentation.addTransformer(new ClassFileTransformer() {
+            @Override
+            public byte[] transform(ClassLoader loader, String className,
+                                    Class<?> classBeingRedefined,
+                                    ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+                if(className == null || loader == null) {
+                    //A hidden class, or a class of the bootstrap loader (which can't see the agent)
+                    return null;
+                }
+                String name = className.replace('/', '.');
+                if(!OOPImpactRecorder.isApplicationClass(name)) {
+                    return null;
+                }
+                byte[] instrumented = OOPClassInstrumenter.instrument(classfileBuffer, name);
+                if(instrumented == null) {
+                    OOPImpactRecorder.uninstrumented(name);
+                }
+                return instrumented;
+            }
+        }, retransform);
+        //The application classes that were loaded before the agent are retransformed
+        List<Class<?>> loaded = new ArrayList<>();
+        for(Class<?> c : instrumentation.getAllLoadedClasses()) {
+            if(OOPImpactRecorder.isApplicationClass(c.getName())) {
+                loaded.add(c);
+            }
+        }
+        for(Class<?> c : loaded) {
+            try {
+                if(!retransform || !instrumentation.isModifiableClass(c)) {
+                    throw new UnmodifiableClassException(c.getName());
+                }
+                instrumentation.retransformClasses(c);
+            } catch (UnmodifiableClassException | RuntimeException | LinkageError e) {
+                OOPImpactRecorder.uninstrumented(c.getName());
+            }
+        }
+        installed = true;
+    }
+}
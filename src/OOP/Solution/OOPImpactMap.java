@@ -0,0 +1,151 @@
+package OOP.Solution;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A persistent map of the application classes that each OOPTest method used (including during
+ * its OOPBefore / OOPAfter methods and its class's OOPSetup methods), which selects the tests
+ * that are affected by a set of changed classes.
+ * The map is a text file with a line for each test: the test class's name and the test's name,
+ * separated by '#', followed by a tab and the test's classes, separated by spaces. Saving the map
+ * merges it with the file's current content under a file lock, so several processes may record
+ * into the same file; the file is replaced atomically, so readers never see a partial map.
+ * @see OOPRunOptions#impactMap(Path)
+ * @see OOPImpactRecorder
+ */
+final class OOPImpactMap {
+
+    //Attribute: the maps that are open in this JVM, one for each file
+    private static final ConcurrentMap<Path, OOPImpactMap> maps = new ConcurrentHashMap<>();
+
+    //Attribute: the map's file
+    private final Path file;
+
+    //Attribute: the classes of each test, keyed by "testClass#testName"
+    private final Map<String, Set<String>> tests = new HashMap<>();
+
+    //Attribute: the tests that were recorded since the map was last saved
+    private final Map<String, Set<String>> recorded = new HashMap<>();
+
+    private OOPImpactMap(Path file) {
+        this.file = file;
+        try {
+            read(file, tests);
+        } catch (IOException e) {
+            //The file can't be read: we consider it empty, so every test is affected
+        }
+    }
+
+    /**
+     * @param file: the map's file, which is created on the first save
+     * @return the map of the given file
+     */
+    static OOPImpactMap of(Path file) {
+        return maps.computeIfAbsent(file.toAbsolutePath().normalize(), OOPImpactMap::new);
+    }
+
+    /**
+     * Decides whether a test is affected by changed classes. A test that has no recorded classes
+     * (e.g. a new test) is always affected
+     * @param testClass: the test class
+     * @param testName: the test's name
+     * @param changedClasses: the binary names of the changed classes
+     * @return true iff the test should run
+     */
+    synchronized boolean isAffected(Class<?> testClass, String testName,
+                                    Set<String> changedClasses) {
+        Set<String> classes = tests.get(key(testClass, testName));
+        if(classes == null) {
+            return true;
+        }
+        for(String changed : changedClasses) {
+            if(classes.contains(changed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records the classes that a test used, replacing its previous record
+     * @param testClass: the test class
+     * @param testName: the test's name
+     * @param classes: the binary names of the classes that the test used
+     */
+    synchronized void record(Class<?> testClass, String testName, Set<String> classes) {
+        Set<String> copy = new TreeSet<>(classes);
+        tests.put(key(testClass, testName), copy);
+        recorded.put(key(testClass, testName), copy);
+    }
+
+    /**
+     * Saves the tests that were recorded since the last save, merging them with the file's
+     * current content. Failing to write the file does not fail the run
+     */
+    synchronized void save() {
+        if(recorded.isEmpty()) {
+            return;
+        }
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                Map<String, Set<String>> merged = new TreeMap<>();
+                read(file, merged);
+                merged.putAll(recorded);
+                StringBuilder content = new StringBuilder();
+                for(Map.Entry<String, Set<String>> entry : merged.entrySet()) {
+                    content.append(entry.getKey()).append('\t')
+                            .append(String.join(" ", entry.getValue())).append('\n');
+                }
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.write(temp, content.toString().getBytes(StandardCharsets.UTF_8));
+                try {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                tests.putAll(merged);
+                recorded.clear();
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            //The recorded tests are kept, and will be saved with the next save
+        }
+    }
+
+    private static String key(Class<?> testClass, String testName) {
+        return testClass.getName() + "#" + testName;
+    }
+
+    /**
+     * Reads a map's file
+     * @param file: the file, which might not exist
+     * @param into: the map into which the file's tests are read
+     * @throws IOException: in case the file can't be read
+     */
+    private static void read(Path file, Map<String, Set<String>> into) throws IOException {
+        if(!Files.exists(file)) {
+            return;
+        }
+        for(String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if(tab <= 0) {
+                continue;
+            }
+            String classes = line.substring(tab + 1).trim();
+            into.put(line.substring(0, tab), classes.isEmpty() ? new TreeSet<>() :
+                    new TreeSet<>(Arrays.asList(classes.split(" "))));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package OOP.Solution;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the application classes that each test uses, for test impact analysis.
+ * Classes are recorded only if {@link OOPImpactAgent} is installed: the agent instruments every
+ * application class, so that each of its methods, constructors and static initializer reports the
+ * class as it's entered. A test's recording starts empty when the test starts, and collects the
+ * classes that the test's thread (and the threads that it starts) executed until the test ended,
+ * so it does not depend on the classes that earlier tests used or loaded.
+ * A class that could not be instrumented (e.g. it was loaded before the agent was attached, and
+ * can't be retransformed) is never reported, so it's conservatively recorded by every test.
+ * @see OOPImpactMap
+ */
+final class OOPImpactRecorder {
+
+    //Attribute: the prefixes of the classes that are not application classes
+    private static final String[] platformPrefixes = {"java.", "javax.", "jdk.", "sun.",
+            "com.sun.", "OOP.Solution.", "OOP.Provided.", "org.junit."};
+
+    //Attribute: the recording of the current thread, which the threads that it starts inherit,
+    //or null if it does not record
+    private static final InheritableThreadLocal<Set<String>> recording =
+            new InheritableThreadLocal<>();
+
+    //Attribute: the application classes that could not be instrumented
+    private static final Set<String> uninstrumented = ConcurrentHashMap.newKeySet();
+
+    private OOPImpactRecorder() {
+    }
+
+    /**
+     * @return true iff the tests' classes are recorded, i.e. the agent is installed. Otherwise,
+     * every test is affected by any change
+     */
+    static boolean isRecording() {
+        return OOPImpactAgent.isInstalled();
+    }
+
+    /**
+     * Starts a new, empty recording on the current thread, which replaces its current one
+     * @return the recording
+     */
+    static Set<String> begin() {
+        Set<String> classes = ConcurrentHashMap.newKeySet();
+        recording.set(classes);
+        return classes;
+    }
+
+    /**
+     * Ends the current thread's recording
+     * @return the classes that were recorded, along with the classes that could not be
+     * instrumented
+     */
+    static Set<String> end() {
+        Set<String> classes = new HashSet<>(uninstrumented);
+        Set<String> recorded = recording.get();
+        if(recorded != null) {
+            classes.addAll(recorded);
+        }
+        recording.remove();
+        return classes;
+    }
+
+    /**
+     * @return the current thread's recording, or null if it does not record
+     */
+    static Set<String> current() {
+        return recording.get();
+    }
+
+    /**
+     * Continues a recording on the current thread (e.g. on the thread that runs a timed test)
+     * @param classes: the recording, or null for not recording
+     */
+    static void resume(Set<String> classes) {
+        if(classes == null) {
+            recording.remove();
+        } else {
+            recording.set(classes);
+        }
+    }
+
+    /**
+     * Records that the current thread executed a class's code
+     * @param className: the class's binary name
+     */
+    static void used(String className) {
+        Set<String> classes = recording.get();
+        if(classes != null) {
+            classes.add(className);
+        }
+    }
+
+    /**
+     * Records an application class that could not be instrumented
+     * @param className: the class's binary name
+     */
+    static void uninstrumented(String className) {
+        uninstrumented.add(className);
+    }
+
+    /**
+     * @param className: a class's binary name
+     * @return true iff the class is an application class (neither a platform class, nor a class
+     * of the OOPUnit framework, nor a generated class)
+     */
+    static boolean isApplicationClass(String className) {
+        for(String prefix : platformPrefixes) {
+            if(className.startsWith(prefix)) {
+                return false;
+            }
+        }
+        return !className.contains("$$Lambda") && !className.endsWith(OOPGeneratedPlan.planSuffix);
+    }
+}
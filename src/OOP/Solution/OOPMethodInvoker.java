@@ -0,0 +1,150 @@
+package OOP.Solution;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes a single OOPUnit annotated method (OOPSetup, OOPBefore, OOPTest or OOPAfter) on an
+ * instance of its test class.
+ * Each method is bound only once, when its class's plan is built, and exceptions that are thrown
+ * by the invoked method are propagated as-is (they are not wrapped by an
+ * InvocationTargetException).
+ * By default, methods are bound to a pre-resolved MethodHandle. Setting the system property
+ * {@code oopunit.invoker} to {@code reflection} (before the first class is run) binds them to
+ * {@link Method#invoke(Object, Object...)} instead.
+ * Methods that are described by a generated plan are invoked by the plan's own invoker, which
+ * calls them directly.
+ * @see OOPTestPlan
+ */
+abstract class OOPMethodInvoker implements OOPGeneratedPlan.Invoker {
+
+    //Attribute: the name of the system property that selects the invocation engine
+    static final String invokerProperty = "oopunit.invoker";
+
+    //Attribute: whether methods should be bound to reflection rather than to method handles
+    private static final boolean useReflection =
+            "reflection".equals(System.getProperty(invokerProperty));
+
+    //Attribute: the invoked method's name
+    private final String name;
+
+    private OOPMethodInvoker(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Binds a given method to an invoker, according to the selected invocation engine
+     * Assumption: the method is accessible, has no parameters, and returns void
+     * @param method: the method to be bound
+     * @return an invoker of the given method
+     */
+    static OOPMethodInvoker bind(Method method) {
+        if(useReflection) {
+            return new ReflectiveInvoker(method);
+        }
+        try {
+            return new MethodHandleInvoker(method);
+        } catch (IllegalAccessException e) {
+            //The method can't be unreflected: fall back to reflection
+            return new ReflectiveInvoker(method);
+        }
+    }
+
+    /**
+     * Wraps a generated plan's invoker of a given method
+     * @param name: the invoked method's name
+     * @param invoker: the generated invoker, or an invoker that was already bound by this class
+     * @return an invoker of the given method
+     */
+    static OOPMethodInvoker of(String name, OOPGeneratedPlan.Invoker invoker) {
+        if(invoker instanceof OOPMethodInvoker) {
+            assert(((OOPMethodInvoker) invoker).getName().equals(name));
+            return (OOPMethodInvoker) invoker;
+        }
+        return new GeneratedInvoker(name, invoker);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Invokes the method on a given instance
+     * @param target: the test class instance on which the method is invoked
+     * @throws Throwable: the exception that was thrown by the invoked method
+     */
+    @Override
+    public abstract void invoke(Object target) throws Throwable;
+
+    @Override
+    public String toString() {
+        return name + "()";
+    }
+
+    /**
+     * Invokes the method through a MethodHandle that was adapted to the {@code (Object)void} type,
+     * so it can be invoked exactly, without boxing or varargs arrays
+     */
+    private static final class MethodHandleInvoker extends OOPMethodInvoker {
+
+        //Attribute: the method's handle, of type (Object)void
+        private final MethodHandle handle;
+
+        private MethodHandleInvoker(Method method) throws IllegalAccessException {
+            super(method.getName());
+            this.handle = MethodHandles.lookup().unreflect(method)
+                    .asType(MethodType.methodType(void.class, Object.class));
+        }
+
+        @Override
+        public void invoke(Object target) throws Throwable {
+            handle.invokeExact(target);
+        }
+    }
+
+    /**
+     * Invokes the method through the reflection API, and unwraps the exceptions it throws
+     */
+    private static final class ReflectiveInvoker extends OOPMethodInvoker {
+
+        //Attribute: the invoked method
+        private final Method method;
+
+        private ReflectiveInvoker(Method method) {
+            super(method.getName());
+            this.method = method;
+        }
+
+        @Override
+        public void invoke(Object target) throws Throwable {
+            try {
+                method.invoke(target);
+            } catch (InvocationTargetException e) {
+                //Method threw an exception: pass it onwards
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Invokes the method through a generated plan's invoker, which calls the method directly
+     */
+    private static final class GeneratedInvoker extends OOPMethodInvoker {
+
+        //Attribute: the generated invoker
+        private final OOPGeneratedPlan.Invoker invoker;
+
+        private GeneratedInvoker(String name, OOPGeneratedPlan.Invoker invoker) {
+            super(name);
+            this.invoker = invoker;
+        }
+
+        @Override
+        public void invoke(Object target) throws Throwable {
+            invoker.invoke(target);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package OOP.Solution;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Takes the snapshots of a single run in the OFF_HEAP snapshot mode (see
+ * {@link OOPSnapshotMode#OFF_HEAP}): the instance's field values are serialized into direct
+ * (off-heap) buffers, so a snapshot of a large fixture does not double the heap's usage, and they
+ * are deserialized only when the instance is restored (i.e. after a failure).
+ * The values are written in chunks that are allocated directly off the heap, so they're never
+ * gathered into a single heap array. Values of immutable types (see
+ * {@link OOPFieldPlan.Kind#IMMUTABLE}) are kept on the heap, since they're shared anyway, and so
+ * are the reflective copies of values whose own types are not serializable (e.g. the exception
+ * rule). A snapshot falls back to the run's reflective (SHALLOW) backup in case:
+ * 1) an object inside a serializable value is not serializable. the instance's class is then
+ *    not serialized again during the run
+ * 2) the snapshots that the run holds would exceed the run's memory budget
+ * 3) the values could not be serialized otherwise (e.g. a value was changed concurrently). only
+ *    that snapshot falls back
+ * The budget is shared by all of the run's snapshots (and the threads that take them), and a
+ * snapshot's chunks are returned to it once the snapshot is released.
+ * The serialized values are restored as deserialization restores them (see the caveats of
+ * {@link OOPSnapshotMode#OFF_HEAP}), rather than as a SHALLOW backup restores them.
+ * @see OOPRunOptions#snapshotMemoryBudget(long)
+ */
+final class OOPOffHeapSnapshots implements OOPSnapshotStrategy {
+
+    //Attribute: the ways in which a snapshot stores a field's value: shared on the heap (being
+    //immutable), serialized off the heap, or copied on the heap (its type is not serializable)
+    private static final byte SHARED = 0;
+    private static final byte SERIALIZED = 1;
+    private static final byte COPIED = 2;
+
+    //Attribute: the sizes of the first chunk of a snapshot, and of its largest chunks, in bytes
+    private static final int firstChunkBytes = 64 * 1024;
+    private static final int maxChunkBytes = 8 * 1024 * 1024;
+
+    //Attribute: the maximal amount of off-heap bytes that the run's snapshots may hold
+    private final long budget;
+
+    //Attribute: the amount of off-heap bytes that the run's snapshots currently hold
+    private final AtomicLong used = new AtomicLong();
+
+    //Attribute: the strategy that takes the snapshots that can't be serialized off the heap
+    private final OOPSnapshotStrategy fallback;
+
+    //Attribute: the test classes one of whose instances had a non-serializable value during the
+    //run. the run's threads take snapshots concurrently
+    private final Set<Class<?>> unserializable = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param budget: the maximal amount of off-heap bytes that the run's snapshots may hold
+     * @param fallback: the strategy that takes the snapshots that can't be serialized
+     */
+    OOPOffHeapSnapshots(long budget, OOPSnapshotStrategy fallback) {
+        this.budget = budget;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Object snapshot(Object instance, OOPSnapshotStats stats) {
+        if(unserializable.contains(instance.getClass())) {
+            return fallback.snapshot(instance, stats);
+        }
+        OOPFieldPlan fieldPlan = OOPFieldPlan.of(instance.getClass());
+        int fieldCount = fieldPlan.getFieldCount();
+        Object[] heapValues = new Object[fieldCount];
+        Object[] serializedValues = new Object[fieldCount];
+        byte[] storage = new byte[fieldCount];
+        long elided = 0;
+        for(int i = 0; i < fieldCount; i++) {
+            Object value = fieldPlan.get(i, instance);
+            if(value == null || fieldPlan.isImmutable(i) ||
+                    OOPFieldPlan.kindOf(value.getClass()) == OOPFieldPlan.Kind.IMMUTABLE) {
+                heapValues[i] = value;
+                storage[i] = SHARED;
+                elided++;
+            } else if(value instanceof Serializable) {
+                serializedValues[i] = value;
+                storage[i] = SERIALIZED;
+            } else {
+                //The value's type is not serializable: it's copied reflectively
+                heapValues[i] = copy(value, stats);
+                storage[i] = COPIED;
+            }
+        }
+        ChunkOutputStream chunks = new ChunkOutputStream();
+        //All of the values are written at once, so objects that several fields share stay shared
+        try (ObjectOutputStream out = new ObjectOutputStream(chunks)) {
+            out.writeObject(serializedValues);
+        } catch (BudgetExceededException e) {
+            chunks.release();
+            return fallback.snapshot(instance, stats);
+        } catch (NotSerializableException | InvalidClassException e) {
+            //An object inside a serializable value is not serializable: the class's instances
+            //are not serialized again
+            chunks.release();
+            unserializable.add(instance.getClass());
+            return fallback.snapshot(instance, stats);
+        } catch (IOException | RuntimeException e) {
+            //The values couldn't be written this time (e.g. one of them was changed meanwhile)
+            chunks.release();
+            return fallback.snapshot(instance, stats);
+        }
+        stats.recordSnapshot();
+        stats.record(0, chunks.size, elided);
+        return new Snapshot(heapValues, storage, chunks);
+    }
+
+    @Override
+    public void restore(Object instance, Object snapshot, OOPSnapshotStats stats) {
+        if(!(snapshot instanceof Snapshot)) {
+            fallback.restore(instance, snapshot, stats);
+            return;
+        }
+        Snapshot offHeap = (Snapshot) snapshot;
+        OOPFieldPlan fieldPlan = OOPFieldPlan.of(instance.getClass());
+        Object[] serializedValues;
+        try (ObjectInputStream in = new LoaderObjectInputStream(offHeap.chunks.read(),
+                instance.getClass().getClassLoader())) {
+            serializedValues = (Object[]) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            //We shouldn't get here: the values were serialized by this JVM
+            throw new IllegalArgumentException(e);
+        }
+        for(int i = 0; i < serializedValues.length; i++) {
+            switch(offHeap.storage[i]) {
+                case SHARED:
+                    fieldPlan.set(i, instance, offHeap.heapValues[i]);
+                    break;
+                case SERIALIZED:
+                    fieldPlan.set(i, instance, serializedValues[i]);
+                    break;
+                case COPIED:
+                    //The snapshot's copy is copied again, so it might be restored again
+                    fieldPlan.set(i, instance, copy(offHeap.heapValues[i], stats));
+                    break;
+                default:
+                    //We shouldn't get here
+                    throw new IllegalArgumentException();
+            }
+        }
+        stats.recordRestored(serializedValues.length);
+    }
+
+    /**
+     * Copies a non-serializable value as a SHALLOW backup copies it (see {@link OOPCopier})
+     * @param value: the value
+     * @param stats: the run's snapshot stats, which count the copy
+     * @return the value's copy, or the value itself if it can't be copied
+     */
+    private static Object copy(Object value, OOPSnapshotStats stats) {
+        Object copy = OOPCopier.of(value.getClass()).copy(value);
+        if(copy != value) {
+            stats.recordCopy(copy);
+        }
+        return copy;
+    }
+
+    @Override
+    public void release(Object snapshot) {
+        if(snapshot instanceof Snapshot) {
+            ((Snapshot) snapshot).chunks.release();
+        } else {
+            fallback.release(snapshot);
+        }
+    }
+
+    /**
+     * A snapshot that was serialized off the heap
+     */
+    private static final class Snapshot {
+
+        //Attribute: the values of the fields that are kept on the heap
+        private final Object[] heapValues;
+
+        //Attribute: for each field, the way in which its value is stored
+        private final byte[] storage;
+
+        //Attribute: the serialized values
+        private final ChunkOutputStream chunks;
+
+        private Snapshot(Object[] heapValues, byte[] storage, ChunkOutputStream chunks) {
+            this.heapValues = heapValues;
+            this.storage = storage;
+            this.chunks = chunks;
+        }
+    }
+
+    /**
+     * Thrown when a snapshot would exceed the run's memory budget
+     */
+    private static final class BudgetExceededException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * A stream that writes into direct buffers, which are reserved from the run's budget. Each
+     * chunk is twice as large as the previous one (up to a maximal size), so the chunks are never
+     * copied as the stream grows
+     */
+    private final class ChunkOutputStream extends OutputStream {
+
+        //Attribute: the written chunks. all of them but the last one are full
+        private final List<ByteBuffer> buffers = new ArrayList<>();
+
+        //Attribute: the amount of bytes that were written, and that were reserved from the budget
+        private long size = 0;
+        private long reserved = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            current(1).put((byte) b);
+            size++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while(length > 0) {
+                ByteBuffer buffer = current(length);
+                int written = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, written);
+                offset += written;
+                length -= written;
+                size += written;
+            }
+        }
+
+        /**
+         * @param length: the amount of bytes that are about to be written
+         * @return a chunk that has some room, which is allocated if the current one is full
+         * @throws BudgetExceededException: in case a new chunk would exceed the run's budget
+         */
+        private ByteBuffer current(int length) throws BudgetExceededException {
+            ByteBuffer last = buffers.isEmpty() ? null : buffers.get(buffers.size() - 1);
+            if(last != null && last.hasRemaining()) {
+                return last;
+            }
+            int capacity = (last == null) ? firstChunkBytes :
+                    Math.min(maxChunkBytes, 2 * last.capacity());
+            capacity = Math.max(capacity, Math.min(length, maxChunkBytes));
+            if(used.addAndGet(capacity) > budget) {
+                used.addAndGet(-capacity);
+                throw new BudgetExceededException();
+            }
+            reserved += capacity;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+            buffers.add(buffer);
+            return buffer;
+        }
+
+        /**
+         * @return a stream that reads the written bytes
+         */
+        private InputStream read() {
+            List<ByteBuffer> views = new ArrayList<>();
+            for(ByteBuffer buffer : buffers) {
+                ByteBuffer view = buffer.duplicate();
+                view.flip();
+                views.add(view);
+            }
+            return new ChunkInputStream(views);
+        }
+
+        /**
+         * Returns the stream's chunks to the run's budget. Their memory is freed once they're
+         * collected
+         */
+        private void release() {
+            used.addAndGet(-reserved);
+            reserved = 0;
+            buffers.clear();
+        }
+    }
+
+    /**
+     * A stream that reads the chunks of a {@link ChunkOutputStream}
+     */
+    private static final class ChunkInputStream extends InputStream {
+
+        //Attribute: the chunks, each of which is read from its position up to its limit
+        private final List<ByteBuffer> buffers;
+
+        //Attribute: the index of the chunk that's currently read
+        private int index = 0;
+
+        private ChunkInputStream(List<ByteBuffer> buffers) {
+            this.buffers = buffers;
+        }
+
+        @Override
+        public int read() {
+            ByteBuffer buffer = current();
+            return (buffer == null) ? -1 : (buffer.get() & 0xFF);
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if(length == 0) {
+                return 0;
+            }
+            ByteBuffer buffer = current();
+            if(buffer == null) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        /**
+         * @return the first chunk that has bytes left, or null if all of them were read
+         */
+        private ByteBuffer current() {
+            while(index < buffers.size() && !buffers.get(index).hasRemaining()) {
+                index++;
+            }
+            return (index < buffers.size()) ? buffers.get(index) : null;
+        }
+    }
+
+    /**
+     * Resolves the serialized classes by the test class's class loader first, since the classes of
+     * the test class's fields might not be visible to the loader that deserialization picks
+     */
+    private static final class LoaderObjectInputStream extends ObjectInputStream {
+
+        //Attribute: the test class's class loader, or null for the bootstrap loader
+        private final ClassLoader loader;
+
+        private LoaderObjectInputStream(InputStream in, ClassLoader loader) throws IOException {
+            super(in);
+            this.loader = loader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, loader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
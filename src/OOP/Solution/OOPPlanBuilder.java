@@ -0,0 +1,262 @@
+package OOP.Solution;
+
+import OOP.Provided.OOPExpectedException;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Collects the OOPUnit methods and the exception rule of a single test class, from which its
+ * {@link OOPTestPlan} is built.
+ * Methods are described either by runtime discovery (reflection), or by a generated plan
+ * ({@link OOPGeneratedPlan}), which refers to the classes in the test class's hierarchy by their
+ * depth: 0 is the test class itself, 1 is its superclass, and so on.
+ */
+public final class OOPPlanBuilder {
+
+    //Attribute: the test class whose plan is being built
+    private final Class<?> testClass;
+
+    //Attribute: the described methods' invokers, listed for each annotation type in their order
+    private final Map<Class<? extends Annotation>, List<OOPMethodInvoker>> methodsDict =
+            new HashMap<>();
+
+    //Attribute: the described tests' orders, tags, timeouts and repetitions ({warmup, repeat}),
+    //in the same order as the test methods
+    private final List<Integer> testOrders = new ArrayList<>();
+    private final List<String> testTags = new ArrayList<>();
+    private final List<Long> testTimeouts = new ArrayList<>();
+    private final List<int[]> testRepetitions = new ArrayList<>();
+
+    //Attribute: the described hooks' test names, in the same order as the hook methods
+    private final List<String[]> beforeValues = new ArrayList<>();
+    private final List<String[]> afterValues = new ArrayList<>();
+
+    //Attribute: the class's OOPExceptionRule annotated field, or null if it doesn't have one
+    private Field exceptionRuleField;
+
+    OOPPlanBuilder(Class<?> testClass) {
+        this.testClass = testClass;
+        //Initialize an empty list of methods for each possible method annotation:
+        methodsDict.put(OOPSetup.class, new ArrayList<>());
+        methodsDict.put(OOPBefore.class, new ArrayList<>());
+        methodsDict.put(OOPTest.class, new ArrayList<>());
+        methodsDict.put(OOPAfter.class, new ArrayList<>());
+    }
+
+    /**
+     * Describes an OOPSetup method
+     * @param name: the method's name
+     * @param invoker: invokes the method
+     * @return this builder
+     */
+    public OOPPlanBuilder setup(String name, OOPGeneratedPlan.Invoker invoker) {
+        methodsDict.get(OOPSetup.class).add(OOPMethodInvoker.of(name, invoker));
+        return this;
+    }
+
+    /**
+     * Describes an OOPBefore method
+     * @param name: the method's name
+     * @param tests: the annotation's {@code value()}: the tests that this method runs before
+     * @param invoker: invokes the method
+     * @return this builder
+     */
+    public OOPPlanBuilder before(String name, String[] tests, OOPGeneratedPlan.Invoker invoker) {
+        methodsDict.get(OOPBefore.class).add(OOPMethodInvoker.of(name, invoker));
+        beforeValues.add(tests);
+        return this;
+    }
+
+    /**
+     * Describes an OOPTest method
+     * @param name: the method's name
+     * @param order: the annotation's {@code order()}
+     * @param tag: the annotation's {@code tag()}
+     * @param invoker: invokes the method
+     * @return this builder
+     */
+    public OOPPlanBuilder test(String name, int order, String tag,
+                               OOPGeneratedPlan.Invoker invoker) {
+        return test(name, order, tag, 0, invoker);
+    }
+
+    /**
+     * Describes an OOPTest method that has a timeout
+     * @param name: the method's name
+     * @param order: the annotation's {@code order()}
+     * @param tag: the annotation's {@code tag()}
+     * @param timeout: the annotation's {@code timeout()}, in milliseconds
+     * @param invoker: invokes the method
+     * @return this builder
+     */
+    public OOPPlanBuilder test(String name, int order, String tag, long timeout,
+                               OOPGeneratedPlan.Invoker invoker) {
+        return test(name, order, tag, timeout, 0, 1, invoker);
+    }
+
+    /**
+     * Describes a repeated OOPTest method
+     * @param name: the method's name
+     * @param order: the annotation's {@code order()}
+     * @param tag: the annotation's {@code tag()}
+     * @param timeout: the annotation's {@code timeout()}, in milliseconds
+     * @param warmup: the annotation's {@code warmup()}
+     * @param repeat: the annotation's {@code repeat()}
+     * @param invoker: invokes the method
+     * @return this builder
+     */
+    public OOPPlanBuilder test(String name, int order, String tag, long timeout, int warmup,
+                               int repeat, OOPGeneratedPlan.Invoker invoker) {
+        methodsDict.get(OOPTest.class).add(OOPMethodInvoker.of(name, invoker));
+        testOrders.add(order);
+        testTags.add(tag);
+        testTimeouts.add(timeout);
+        testRepetitions.add(new int[] {warmup, repeat});
+        return this;
+    }
+
+    /**
+     * Describes an OOPAfter method
+     * @param name: the method's name
+     * @param tests: the annotation's {@code value()}: the tests that this method runs after
+     * @param invoker: invokes the method
+     * @return this builder
+     */
+    public OOPPlanBuilder after(String name, String[] tests, OOPGeneratedPlan.Invoker invoker) {
+        methodsDict.get(OOPAfter.class).add(OOPMethodInvoker.of(name, invoker));
+        afterValues.add(tests);
+        return this;
+    }
+
+    /**
+     * Describes the class's OOPExceptionRule annotated field
+     * @param depth: the depth of the field's declaring class in the test class's hierarchy
+     * @param fieldName: the field's name
+     * @return this builder
+     * @throws IllegalArgumentException: in case the class does not declare such a field
+     */
+    public OOPPlanBuilder exceptionRule(int depth, String fieldName)
+            throws IllegalArgumentException {
+        try {
+            Field field = declaringClass(depth).getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return exceptionRule(field);
+        } catch (NoSuchFieldException e) {
+            //The generated plan does not match the test class
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Returns an invoker of a parameterless method that's declared in the test class's hierarchy,
+     * for the methods that can't be invoked directly from a generated plan (e.g. private methods).
+     * The method is looked up by its name only: no other method of the class is discovered
+     * @param depth: the depth of the method's declaring class in the test class's hierarchy
+     * @param name: the method's name
+     * @return an invoker of the method
+     * @throws IllegalArgumentException: in case the class does not declare such a method
+     */
+    public OOPGeneratedPlan.Invoker declared(int depth, String name)
+            throws IllegalArgumentException {
+        try {
+            Method method = declaringClass(depth).getDeclaredMethod(name);
+            method.setAccessible(true);
+            return OOPMethodInvoker.bind(method);
+        } catch (NoSuchMethodException e) {
+            //The generated plan does not match the test class
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Describes a discovered OOPUnit method, according to its annotation
+     * @param method: the method, which is already accessible
+     * @param annotation: the method's OOPUnit annotation
+     * @return this builder
+     */
+    OOPPlanBuilder method(Method method, Annotation annotation) {
+        OOPMethodInvoker invoker = OOPMethodInvoker.bind(method);
+        if(annotation instanceof OOPSetup) {
+            methodsDict.get(OOPSetup.class).add(invoker);
+        } else if(annotation instanceof OOPBefore) {
+            methodsDict.get(OOPBefore.class).add(invoker);
+            beforeValues.add(((OOPBefore) annotation).value());
+        } else if(annotation instanceof OOPTest) {
+            methodsDict.get(OOPTest.class).add(invoker);
+            testOrders.add(((OOPTest) annotation).order());
+            testTags.add(((OOPTest) annotation).tag());
+            testTimeouts.add(((OOPTest) annotation).timeout());
+            testRepetitions.add(new int[] {((OOPTest) annotation).warmup(),
+                    ((OOPTest) annotation).repeat()});
+        } else {
+            assert(annotation instanceof OOPAfter);
+            methodsDict.get(OOPAfter.class).add(invoker);
+            afterValues.add(((OOPAfter) annotation).value());
+        }
+        return this;
+    }
+
+    /**
+     * Describes a discovered OOPExceptionRule annotated field
+     * @param field: the field, which is already accessible
+     * @return this builder
+     */
+    OOPPlanBuilder exceptionRule(Field field) {
+        //Assumption: OOPExceptionRule only annotates OOPExpectedException fields
+        assert (OOPExpectedException.class.isAssignableFrom(field.getType()));
+        exceptionRuleField = field;
+        return this;
+    }
+
+    Class<?> getTestClass() {
+        return testClass;
+    }
+
+    List<OOPMethodInvoker> getMethods(Class<? extends Annotation> annotation) {
+        return methodsDict.get(annotation);
+    }
+
+    List<Integer> getTestOrders() {
+        return testOrders;
+    }
+
+    List<String> getTestTags() {
+        return testTags;
+    }
+
+    List<Long> getTestTimeouts() {
+        return testTimeouts;
+    }
+
+    List<int[]> getTestRepetitions() {
+        return testRepetitions;
+    }
+
+    /**
+     * @param annotation: hooks' annotation type: either OOPBefore or OOPAfter
+     * @return the hooks' test names, in the same order as the hooks of the given annotation type
+     */
+    List<String[]> getHookValues(Class<? extends Annotation> annotation) {
+        assert(annotation == OOPBefore.class || annotation == OOPAfter.class);
+        return (annotation == OOPBefore.class) ? beforeValues : afterValues;
+    }
+
+    Field getExceptionRuleField() {
+        return exceptionRuleField;
+    }
+
+    /**
+     * @param depth: a class's depth in the test class's hierarchy
+     * @return the class in the given depth
+     */
+    private Class<?> declaringClass(int depth) {
+        Class<?> current = testClass;
+        for(int i = 0; i < depth; i++) {
+            current = current.getSuperclass();
+        }
+        return current;
+    }
+}
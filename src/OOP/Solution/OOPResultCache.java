@@ -0,0 +1,342 @@
+package OOP.Solution;
+
+import OOP.Provided.OOPResult;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A persistent cache of test classes' summaries, so that classes that did not change since their
+ * last run are not run again.
+ * A summary is keyed by a hash of the bytecode of the test class, of its superclasses (whose
+ * OOPUnit methods it runs), of its declared dependencies ({@link OOPTestClass#dependsOn()}) and
+ * of every class of the OOPUnit framework's packages, along with the run's tag, shard, failure
+ * budget, snapshot mode, ordered waves and changed classes (for impact analysis).
+ * The cache file is append-only: every stored summary is a single line of its key and its
+ * encoded summary (see {@link OOPWire}), and the latest line of a key wins. Lines are appended
+ * under an exclusive file lock, in a single write, so several processes can share a file.
+ * Readers take no lock: they only read complete lines, so a line that's being appended (or was
+ * cut by a crash) is ignored, as is any line that can't be decoded.
+ * Runs that had a TIMEOUT are not stored, since timeouts depend on the machine's load.
+ * @see OOPRunOptions#resultCache(Path)
+ */
+final class OOPResultCache {
+
+    //Attribute: the caches that are open in this JVM, one for each file
+    private static final ConcurrentMap<Path, OOPResultCache> caches = new ConcurrentHashMap<>();
+
+    //Attribute: the hash of each class's bytecode, or an empty array if it's unavailable
+    private static final ClassValue<byte[]> bytecodeHashes = new ClassValue<byte[]>() {
+        @Override
+        protected byte[] computeValue(Class<?> c) {
+            return hashBytecode(c);
+        }
+    };
+
+    //Attribute: a class of each of the framework's packages, whose classes are all hashed
+    private static final Class<?>[] frameworkPackages = {OOPUnitCore.class, OOPResult.class};
+
+    //Attribute: the hash of the framework's classes, or an empty array if it's unavailable. it's
+    //computed once, by the first run that's cached
+    private static volatile byte[] frameworkHash;
+
+    //Attribute: the cache's file
+    private final Path file;
+
+    //Attribute: the encoded summary of each key, as read from the file so far
+    private final Map<String, String> entries = new HashMap<>();
+
+    //Attribute: the file's offset up to which complete lines were read
+    private long readOffset = 0;
+
+    private OOPResultCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @param file: the cache's file, which is created on the first store
+     * @return the cache of the given file
+     */
+    static OOPResultCache of(Path file) {
+        return caches.computeIfAbsent(file.toAbsolutePath().normalize(), OOPResultCache::new);
+    }
+
+    /**
+     * Computes the cache key of a run
+     * @param testClass: the test class
+     * @param tag: the run's tag
+     * @param options: the run's options
+     * @return the run's key, or null if the bytecode of one of the hashed classes is unavailable
+     * (in which case the run isn't cached)
+     */
+    static String key(Class<?> testClass, String tag, OOPRunOptions options) {
+        MessageDigest digest = sha256();
+        for(Class<?> current = testClass; current != null && current != Object.class;
+            current = current.getSuperclass()) {
+            if(!update(digest, current)) {
+                return null;
+            }
+        }
+        for(Class<?> dependency : testClass.getAnnotation(OOPTestClass.class).dependsOn()) {
+            if(!update(digest, dependency)) {
+                return null;
+            }
+        }
+        byte[] framework = frameworkHash();
+        if(framework.length == 0) {
+            return null;
+        }
+        digest.update(framework);
+        digest.update((tag + "\0" + options.getShardIndex() + "/" + options.getShardCount() +
+                "\0" + options.getFailureBudget() + "\0" + options.getSnapshotMode() +
+                "\0" + options.isOrderedWaves()).getBytes(StandardCharsets.UTF_8));
+        if(options.getImpactMap() != null && options.getChangedClasses() != null) {
+            //The selected tests depend on the changed classes
+            digest.update(new TreeSet<>(options.getChangedClasses()).toString()
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder hex = new StringBuilder();
+        for(byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return testClass.getName() + ":" + hex;
+    }
+
+    /**
+     * @param key: a run's key
+     * @return the summary that was stored for the key (by any process), or null if there's none
+     */
+    synchronized OOPTestSummary lookup(String key) {
+        try {
+            refresh();
+        } catch (IOException e) {
+            //The file can't be read: we consider it empty
+            return null;
+        }
+        String encoded = entries.get(key);
+        if(encoded == null) {
+            return null;
+        }
+        try {
+            OOPTestSummary summary = OOPWire.readResponse(new DataInputStream(
+                    new ByteArrayInputStream(Base64.getDecoder().decode(encoded)))).getSummary();
+            return new OOPTestSummary(summary.getResults(), summary.getDurationNanos(), true);
+        } catch (IOException | IllegalArgumentException e) {
+            //A corrupted entry is considered missing
+            return null;
+        }
+    }
+
+    /**
+     * Stores a run's summary. Failing to write the file does not fail the run
+     * @param key: the run's key
+     * @param summary: the run's summary
+     */
+    synchronized void store(String key, OOPTestSummary summary) {
+        for(OOPResult result : summary.getResults().values()) {
+            if(result.getResultType() == OOPResult.OOPTestResult.TIMEOUT) {
+                return;
+            }
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            OOPWire.writeSummary(new DataOutputStream(bytes), summary, 0);
+            String encoded = Base64.getEncoder().encodeToString(bytes.toByteArray());
+            ByteBuffer line = ByteBuffer.wrap((key + "\t" + encoded + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                FileLock lock = channel.lock();
+                try {
+                    while(line.hasRemaining()) {
+                        channel.write(line);
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+            entries.put(key, encoded);
+        } catch (IOException e) {
+            //The summary is not cached
+        }
+    }
+
+    /**
+     * Reads the complete lines that were appended to the file since the last read
+     * @throws IOException: in case the file can't be read
+     */
+    private void refresh() throws IOException {
+        if(!file.toFile().exists()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < readOffset) {
+                //The file was replaced: read it from its start
+                entries.clear();
+                readOffset = 0;
+            }
+            ByteArrayOutputStream appended = new ByteArrayOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            channel.position(readOffset);
+            while(channel.read(buffer) > 0) {
+                appended.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            byte[] bytes = appended.toByteArray();
+            int lineStart = 0;
+            for(int i = 0; i < bytes.length; i++) {
+                if(bytes[i] != '\n') {
+                    continue;
+                }
+                String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                int tab = line.indexOf('\t');
+                if(tab > 0) {
+                    entries.put(line.substring(0, tab), line.substring(tab + 1));
+                }
+                lineStart = i + 1;
+            }
+            //A partial last line is read again on the next refresh
+            readOffset += lineStart;
+        }
+    }
+
+    /**
+     * Adds a class's bytecode hash to a digest
+     * @param digest: the digest
+     * @param c: the class
+     * @return false iff the class's bytecode is unavailable
+     */
+    private static boolean update(MessageDigest digest, Class<?> c) {
+        byte[] hash = bytecodeHashes.get(c);
+        digest.update(hash);
+        return hash.length > 0;
+    }
+
+    /**
+     * @param c: a class
+     * @return the hash of the class's bytecode, or an empty array if it's unavailable
+     */
+    private static byte[] hashBytecode(Class<?> c) {
+        String resource = c.getName().replace('.', '/') + ".class";
+        ClassLoader loader = (c.getClassLoader() != null) ? c.getClassLoader() :
+                ClassLoader.getSystemClassLoader();
+        try (InputStream in = loader.getResourceAsStream(resource)) {
+            return (in == null) ? new byte[0] : hash(in);
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    /**
+     * @return the hash of the bytecode of all of the classes of the framework's packages (so a
+     * change to any of them invalidates the cache), or an empty array if it's unavailable
+     */
+    private static byte[] frameworkHash() {
+        byte[] hash = frameworkHash;
+        if(hash == null) {
+            MessageDigest digest = sha256();
+            try {
+                for(Class<?> c : frameworkPackages) {
+                    hashPackage(digest, c);
+                }
+                hash = digest.digest();
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                hash = new byte[0];
+            }
+            frameworkHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Adds the bytecode of all of the classes of a class's package to a digest, in the order of
+     * their names. The package is read from the directory or the jar from which the class was
+     * loaded
+     * @param digest: the digest
+     * @param c: a class of the package
+     * @throws IOException: in case the package's classes can't be read (or listed)
+     * @throws URISyntaxException: in case the class's location is not a valid path
+     */
+    private static void hashPackage(MessageDigest digest, Class<?> c)
+            throws IOException, URISyntaxException {
+        String resource = c.getName().replace('.', '/') + ".class";
+        String packagePath = resource.substring(0, resource.lastIndexOf('/') + 1);
+        URL location = c.getResource("/" + resource);
+        if(location == null) {
+            throw new IOException(resource);
+        }
+        SortedMap<String, byte[]> classes = new TreeMap<>();
+        if(location.getProtocol().equals("file")) {
+            try (Stream<Path> files = Files.list(Paths.get(location.toURI()).getParent())) {
+                for(Path classFile : (Iterable<Path>) files::iterator) {
+                    String name = classFile.getFileName().toString();
+                    if(name.endsWith(".class")) {
+                        try (InputStream in = Files.newInputStream(classFile)) {
+                            classes.put(name, hash(in));
+                        }
+                    }
+                }
+            }
+        } else if(location.getProtocol().equals("jar")) {
+            JarURLConnection connection = (JarURLConnection) location.openConnection();
+            connection.setUseCaches(false);
+            try (JarFile jar = connection.getJarFile()) {
+                for(JarEntry entry : Collections.list(jar.entries())) {
+                    String name = entry.getName();
+                    if(name.startsWith(packagePath) && name.endsWith(".class") &&
+                            name.indexOf('/', packagePath.length()) < 0) {
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            classes.put(name.substring(packagePath.length()), hash(in));
+                        }
+                    }
+                }
+            }
+        } else {
+            //The package's classes can't be listed
+            throw new IOException(location.toString());
+        }
+        for(Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update(entry.getValue());
+        }
+    }
+
+    /**
+     * @param in: a stream
+     * @return the hash of the stream's bytes
+     * @throws IOException: in case the stream can't be read
+     */
+    private static byte[] hash(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        for(int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+            digest.update(buffer, 0, read);
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            //We shouldn't get here: every JVM supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
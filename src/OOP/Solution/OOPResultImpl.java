@@ -10,9 +10,17 @@ public class OOPResultImpl implements OOPResult {
     //Attribute: a test method's name
     private String message;
 
+    //Attribute: the timings of a repeated test's iterations, or null if it wasn't repeated
+    private OOPTimingStats timings;
+
     OOPResultImpl(OOPTestResult result, String message) {
+        this(result, message, null);
+    }
+
+    OOPResultImpl(OOPTestResult result, String message, OOPTimingStats timings) {
         this.result = result;
         this.message = message;
+        this.timings = timings;
     }
 
     @Override
@@ -25,6 +33,13 @@ public class OOPResultImpl implements OOPResult {
         return message;
     }
 
+    /**
+     * @return the timings of a repeated test's iterations, or null if the test wasn't repeated
+     */
+    public OOPTimingStats getTimings() {
+        return timings;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if(obj == null) {
@@ -0,0 +1,198 @@
+package OOP.Solution;
+
+import OOP.Provided.OOPResult;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The state of a single runClass call that's shared by all of its tests (and by all the threads
+ * on which they run): its failure budget, the recording of the classes that its tests use, the
+ * listeners that are notified of its results, and the strategy that takes its snapshots.
+ * @see OOPFailureBudget
+ * @see OOPImpactMap
+ * @see OOPTestListener
+ */
+final class OOPRunContext {
+
+    //Attribute: the run's failure budget
+    private final OOPFailureBudget budget;
+
+    //Attribute: the test class that's being run
+    private final Class<?> testClass;
+
+    //Attribute: the map into which the tests' classes are recorded, or null if they're not
+    private final OOPImpactMap impactMap;
+
+    //Attribute: the classes that every test uses: the test class's hierarchy, and the classes
+    //that were used while the test class was constructed and set up
+    private final Set<String> sharedClasses = new HashSet<>();
+
+    //Attribute: the listeners that are notified of the run's results, in notification order
+    private final List<OOPTestListener> listeners;
+
+    //Attribute: the strategy that takes the run's snapshots, and the counters of what they copied
+    private final OOPSnapshotStrategy snapshots;
+    private final OOPSnapshotStats snapshotStats;
+
+    /**
+     * @param budget: the run's failure budget
+     * @param testClass: the test class that's being run
+     * @param impactMap: the map into which the tests' classes are recorded, or null
+     * @param setupClasses: the classes that were used while the test class was set up
+     * @param listeners: the listeners that are notified of the run's results
+     * @param snapshots: the strategy that takes the run's snapshots
+     * @param snapshotStats: the counters of what the run's snapshots copied
+     */
+    OOPRunContext(OOPFailureBudget budget, Class<?> testClass, OOPImpactMap impactMap,
+                  Set<String> setupClasses, List<OOPTestListener> listeners,
+                  OOPSnapshotStrategy snapshots, OOPSnapshotStats snapshotStats) {
+        this.snapshots = snapshots;
+        this.budget = budget;
+        this.listeners = listeners;
+        this.snapshotStats = snapshotStats;
+        this.testClass = testClass;
+        this.impactMap = impactMap;
+        for(Class<?> current = testClass; current != null && current != Object.class;
+            current = current.getSuperclass()) {
+            sharedClasses.add(current.getName());
+        }
+        sharedClasses.addAll(setupClasses);
+    }
+
+    OOPFailureBudget getBudget() {
+        return budget;
+    }
+
+    OOPSnapshotStats getSnapshotStats() {
+        return snapshotStats;
+    }
+
+    /**
+     * @param instance: a test class instance
+     * @return a snapshot of the instance, taken by the run's snapshot strategy
+     */
+    Object snapshot(Object instance) {
+        return snapshots.snapshot(instance, snapshotStats);
+    }
+
+    /**
+     * Restores a test class instance from one of the run's snapshots
+     * @param instance: the test class instance
+     * @param snapshot: the snapshot, which was taken by {@link #snapshot(Object)}
+     */
+    void restore(Object instance, Object snapshot) {
+        snapshots.restore(instance, snapshot, snapshotStats);
+    }
+
+    /**
+     * Releases a snapshot that's no longer restored
+     * @param snapshot: the snapshot, which was taken by {@link #snapshot(Object)}, or null
+     */
+    void release(Object snapshot) {
+        if(snapshot != null) {
+            snapshots.release(snapshot);
+        }
+    }
+
+    /**
+     * @return true iff the run records the classes that its tests use
+     */
+    private boolean isRecording() {
+        return impactMap != null && OOPImpactRecorder.isRecording();
+    }
+
+    /**
+     * Starts recording the classes that a test uses on the current thread, once the test starts.
+     * Nothing is recorded if the run has no impact map, or if classes are not recorded
+     */
+    void startRecording() {
+        if(isRecording()) {
+            OOPImpactRecorder.begin();
+        }
+    }
+
+    /**
+     * Records the classes that a test used in the run's impact map, once the test ended
+     * @param test: the test, whose recording was started on the current thread
+     */
+    void finishRecording(OOPMethodInvoker test) {
+        if(!isRecording()) {
+            return;
+        }
+        Set<String> classes = OOPImpactRecorder.end();
+        classes.addAll(sharedClasses);
+        impactMap.record(testClass, test.getName(), classes);
+    }
+
+    /**
+     * Notifies the listeners that a test started
+     * @param test: the starting test
+     * @return the test's event, which is passed to all of its notifications
+     */
+    OOPTestEvent testStarted(OOPMethodInvoker test) {
+        OOPTestEvent event = new OOPTestEvent(testClass, test.getName());
+        for(OOPTestListener listener : listeners) {
+            listener.testStarted(event);
+        }
+        return event;
+    }
+
+    /**
+     * Ends the test's current phase, and notifies the listeners
+     * @param event: the test's event
+     */
+    void phaseFinished(OOPTestEvent event) {
+        event.endPhase();
+        if(budget.isExhausted()) {
+            //The run was stopped: the test is interrupted, and its result will be NOT_RUN
+            return;
+        }
+        for(OOPTestListener listener : listeners) {
+            listener.phaseFinished(event);
+        }
+    }
+
+    /**
+     * Notifies the listeners of a test's final result
+     * @param event: the test's event, along with its result
+     */
+    void testFinished(OOPTestEvent event) {
+        for(OOPTestListener listener : listeners) {
+            listener.testFinished(event);
+        }
+    }
+
+    /**
+     * Notifies the listeners of a test that terminated with NOT_RUN
+     * @param test: the test
+     * @param notRun: the test's NOT_RUN result
+     */
+    void testNotRun(OOPMethodInvoker test, OOPResult notRun) {
+        OOPTestEvent event = new OOPTestEvent(testClass, test.getName());
+        event.setResult(notRun);
+        testFinished(event);
+    }
+
+    /**
+     * Notifies the listeners of a test's result that was replayed from the result cache
+     * @param testName: the test's name
+     * @param result: the test's replayed result
+     */
+    void testReplayed(String testName, OOPResult result) {
+        OOPTestEvent event = new OOPTestEvent(testClass, testName);
+        event.setResult(result);
+        testFinished(event);
+    }
+
+    /**
+     * Notifies the listeners that the run finished
+     * @param durationNanos: the wall-clock duration of the run, in nanoseconds
+     */
+    void classFinished(long durationNanos) {
+        for(OOPTestListener listener : listeners) {
+            listener.classFinished(testClass, durationNanos);
+        }
+    }
+}
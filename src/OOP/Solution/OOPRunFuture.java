@@ -0,0 +1,86 @@
+package OOP.Solution;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The future summary of an asynchronous runClass call, which also exposes the run's progress.
+ * Cancelling the future stops the run: no more tests, OOPSetup, OOPBefore or OOPAfter methods are
+ * invoked, and the tests that are running are interrupted (a test that ignores interrupts runs
+ * until it ends, or until its timeout). The future of a cancelled run never completes with a
+ * summary.
+ * Stages that depend on this future are plain CompletableFutures: cancelling them does not
+ * cancel the run.
+ * @see OOPUnitCore#runClassAsync(Class, String, OOPRunOptions, java.util.concurrent.Executor)
+ */
+public final class OOPRunFuture extends CompletableFuture<OOPTestSummary>
+        implements OOPTestListener {
+
+    //Attribute: the amount of the run's tests that finished so far (including NOT_RUN tests)
+    private final AtomicInteger completedTests = new AtomicInteger();
+
+    //Attribute: the amount of the run's tests, or -1 if the run did not start yet
+    private volatile int totalTests = -1;
+
+    //Attribute: the run's failure budget, through which the run is stopped, or null if the run
+    //did not start yet
+    private volatile OOPFailureBudget budget;
+
+    OOPRunFuture() {
+    }
+
+    /**
+     * @return the amount of the run's tests that finished so far
+     */
+    public int getCompletedTests() {
+        return completedTests.get();
+    }
+
+    /**
+     * @return the amount of tests that the run runs (after its tag, shard and impact analysis
+     * selected them), or -1 if the run did not start yet
+     */
+    public int getTotalTests() {
+        return totalTests;
+    }
+
+    /**
+     * Cancels the future, and stops the run
+     * @param mayInterruptIfRunning: ignored, the running tests are always interrupted
+     * @return true iff the future was cancelled by this call
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        OOPFailureBudget current = budget;
+        if(cancelled && current != null) {
+            current.cancel();
+        }
+        return cancelled;
+    }
+
+    /**
+     * Marks the run's start. In case the future was already cancelled, the run is stopped
+     * immediately
+     * @param budget: the run's failure budget, or null for a run that's replayed from the result
+     *              cache
+     */
+    void started(OOPFailureBudget budget) {
+        this.budget = budget;
+        if(isCancelled() && budget != null) {
+            budget.cancel();
+        }
+    }
+
+    /**
+     * @param totalTests: the amount of tests that the run runs
+     */
+    void setTotalTests(int totalTests) {
+        this.totalTests = totalTests;
+    }
+
+    @Override
+    public void testFinished(OOPTestEvent event) {
+        completedTests.incrementAndGet();
+    }
+}
@@ -0,0 +1,374 @@
+package OOP.Solution;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The options of a single runClass call.
+ * Options are set in a chained manner, starting from the default options, e.g.:
+ * {@code OOPRunOptions.defaults().parallel(true).parallelism(4)}
+ * @see OOPUnitCore#runClass(Class, String, OOPRunOptions)
+ */
+public class OOPRunOptions {
+
+    //Attribute: whether the tests of UNORDERED test classes should run concurrently
+    private boolean parallel;
+
+    //Attribute: the amount of worker threads that run concurrent tests
+    private int parallelism;
+
+    //Attribute: the amount of worker threads that run test classes concurrently, in a batch run
+    private int classParallelism;
+
+    //Attribute: whether the tests of UNORDERED test classes should run on virtual threads
+    private boolean virtualThreads;
+
+    //Attribute: the maximal amount of tests that run on virtual threads at the same time
+    private int maxConcurrency;
+
+    //Attribute: whether the tests of ORDERED test classes that share an order run concurrently
+    private boolean orderedWaves;
+
+    //Attribute: the amount of failed tests that stops the run, or 0 if the run is never stopped
+    private int failureBudget;
+
+    //Attribute: the way in which the test class instance is backed-up and restored
+    private OOPSnapshotMode snapshotMode;
+
+    //Attribute: the maximal amount of off-heap bytes that the snapshots of a run may hold
+    private long snapshotMemoryBudget;
+
+    //Attribute: the file of the persistent result cache, or null if results are not cached
+    private Path resultCache;
+
+    //Attribute: the file of the test impact map, or null if tests' classes are not recorded
+    private Path impactMap;
+
+    //Attribute: the binary names of the changed classes, or null if all the tests should run
+    private Set<String> changedClasses;
+
+    //Attribute: the listeners that are notified of the runs' results, in registration order
+    private List<OOPTestListener> listeners;
+
+    //Attribute: the shard of the tests that should run, out of the amount of shards
+    private int shardIndex;
+    private int shardCount;
+
+    private OOPRunOptions() {
+    }
+
+    /**
+     * @return new run options, which run all of the tests sequentially, on the caller's thread
+     */
+    public static OOPRunOptions defaults() {
+        OOPRunOptions res = new OOPRunOptions();
+        res.parallel = false;
+        res.parallelism = Runtime.getRuntime().availableProcessors();
+        res.classParallelism = Runtime.getRuntime().availableProcessors();
+        res.virtualThreads = false;
+        res.maxConcurrency = 256;
+        res.orderedWaves = false;
+        res.failureBudget = 0;
+        res.snapshotMode = OOPSnapshotMode.SHALLOW;
+        res.snapshotMemoryBudget = 256L * 1024 * 1024;
+        res.resultCache = null;
+        res.impactMap = null;
+        res.changedClasses = null;
+        res.listeners = new ArrayList<>();
+        res.shardIndex = 0;
+        res.shardCount = 1;
+        return res;
+    }
+
+    /**
+     * Sets whether the tests of UNORDERED test classes should run concurrently. Each concurrent
+     * test runs on its own copy of the test class instance, which is backed-up from the instance
+     * after its OOPSetup methods ran. ORDERED test classes always run sequentially
+     * @param parallel: whether the tests should run concurrently
+     * @return this object
+     */
+    public OOPRunOptions parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Sets the amount of worker threads that run concurrent tests
+     * @param parallelism: a positive amount of worker threads
+     * @return this object
+     * @throws IllegalArgumentException: in case the given parallelism is not positive
+     */
+    public OOPRunOptions parallelism(int parallelism) throws IllegalArgumentException {
+        if(parallelism <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets the amount of worker threads that run whole test classes concurrently, when several
+     * classes are run together
+     * @see OOPUnitCore#runClasses(java.util.Collection, String, OOPRunOptions)
+     * @param classParallelism: a positive amount of worker threads
+     * @return this object
+     * @throws IllegalArgumentException: in case the given parallelism is not positive
+     */
+    public OOPRunOptions classParallelism(int classParallelism) throws IllegalArgumentException {
+        if(classParallelism <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.classParallelism = classParallelism;
+        return this;
+    }
+
+    /**
+     * Sets whether each test of an UNORDERED test class (along with its OOPBefore and OOPAfter
+     * methods) should run on its own virtual thread, so that tests that block on I/O overlap.
+     * Like in the parallel mode, each test runs on its own copy of the test class instance.
+     * This mode takes precedence over {@link #parallel(boolean)}. On JVMs that do not support
+     * virtual threads, the tests run on cached platform threads instead
+     * @param virtualThreads: whether the tests should run on virtual threads
+     * @return this object
+     */
+    public OOPRunOptions virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Sets the maximal amount of tests that run on virtual threads at the same time
+     * @param maxConcurrency: a positive amount of tests
+     * @return this object
+     * @throws IllegalArgumentException: in case the given amount is not positive
+     */
+    public OOPRunOptions maxConcurrency(int maxConcurrency) throws IllegalArgumentException {
+        if(maxConcurrency <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Sets whether the tests of ORDERED test classes should run in waves: the tests that share
+     * the same {@code order()} form a wave, and run concurrently (on the worker threads given by
+     * {@link #parallelism(int)}), each on its own copy of the test class instance. A wave starts
+     * only after the previous one ended, and after its copies were merged back into the instance:
+     * every field that a test of the wave changed is merged, and when several tests of the wave
+     * changed the same field, the value of the last of them (in the order in which they would
+     * have run sequentially) is kept. A field counts as changed when it was re-assigned, or when
+     * its value is an array or an object that overrides {@code equals}, and is no longer equal to
+     * its value before the wave. In-place changes of other objects are not detected
+     * @param orderedWaves: whether the tests that share an order should run concurrently
+     * @return this object
+     */
+    public OOPRunOptions orderedWaves(boolean orderedWaves) {
+        this.orderedWaves = orderedWaves;
+        return this;
+    }
+
+    /**
+     * Sets whether the run should stop after the first test that terminates with FAILURE, ERROR,
+     * EXPECTED_EXCEPTION_MISMATCH or TIMEOUT. This is a failure budget of a single test
+     * @see #failureBudget(int)
+     * @param failFast: whether the run should stop after the first failed test
+     * @return this object
+     */
+    public OOPRunOptions failFast(boolean failFast) {
+        this.failureBudget = failFast ? 1 : 0;
+        return this;
+    }
+
+    /**
+     * Sets the amount of failed tests (FAILURE, ERROR, EXPECTED_EXCEPTION_MISMATCH or TIMEOUT)
+     * after which the run stops. Once the run stops, no more tests are started, concurrent tests
+     * that are still running are interrupted, and all of these tests terminate with NOT_RUN
+     * @param failureBudget: a positive amount of failed tests
+     * @return this object
+     * @throws IllegalArgumentException: in case the given budget is not positive
+     */
+    public OOPRunOptions failureBudget(int failureBudget) throws IllegalArgumentException {
+        if(failureBudget <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.failureBudget = failureBudget;
+        return this;
+    }
+
+    /**
+     * Sets the way in which the test class instance is backed-up before each test's OOPBefore and
+     * OOPAfter methods, and restored after they fail
+     * @param snapshotMode: the snapshot mode
+     * @return this object
+     * @throws IllegalArgumentException: in case the given mode is null
+     */
+    public OOPRunOptions snapshotMode(OOPSnapshotMode snapshotMode)
+            throws IllegalArgumentException {
+        if(snapshotMode == null) {
+            throw new IllegalArgumentException();
+        }
+        this.snapshotMode = snapshotMode;
+        return this;
+    }
+
+    /**
+     * Sets the maximal amount of off-heap memory that the snapshots of a single run may hold at
+     * the same time, in the OFF_HEAP snapshot mode. A snapshot that would exceed the budget is
+     * taken as a SHALLOW backup instead
+     * @param snapshotMemoryBudget: the budget, in bytes (256MB by default)
+     * @return this object
+     * @throws IllegalArgumentException: in case the given budget is not positive
+     */
+    public OOPRunOptions snapshotMemoryBudget(long snapshotMemoryBudget)
+            throws IllegalArgumentException {
+        if(snapshotMemoryBudget <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.snapshotMemoryBudget = snapshotMemoryBudget;
+        return this;
+    }
+
+    /**
+     * Sets the file of a persistent result cache. A class whose bytecode (along with its
+     * superclasses' and its declared dependencies', see {@link OOPTestClass#dependsOn()}) did not
+     * change since it was last run with the same tag, shard and failure budget is not run again:
+     * its cached summary is replayed instead (see {@link OOPTestSummary#isReplayed()}).
+     * The file may be shared by several processes
+     * @param resultCache: the cache's file, or null for no caching
+     * @return this object
+     */
+    public OOPRunOptions resultCache(Path resultCache) {
+        this.resultCache = resultCache;
+        return this;
+    }
+
+    /**
+     * Sets the file of a test impact map, into which the application classes that each test uses
+     * are recorded, and from which the tests that are affected by changed classes are selected
+     * (see {@link #affectedBy(Collection)}). Classes are recorded only if {@link OOPImpactAgent}
+     * is installed: a test's record is every application class whose code its thread (or the
+     * threads that it started) executed while it ran, along with the classes that the class's
+     * construction and setup used. Without the agent, nothing is recorded and every test is
+     * affected
+     * @param impactMap: the map's file, or null for no impact analysis
+     * @return this object
+     */
+    public OOPRunOptions impactMap(Path impactMap) {
+        this.impactMap = impactMap;
+        return this;
+    }
+
+    /**
+     * Sets the classes that changed since the impact map was recorded. Only the tests that used
+     * one of them (or that have no record in the map) run, while the rest of the tests terminate
+     * with NOT_RUN, as skipped by impact analysis. Takes effect only along with
+     * {@link #impactMap(Path)}
+     * @param changedClasses: the binary names of the changed classes, or null for running all
+     *                      the tests
+     * @return this object
+     */
+    public OOPRunOptions affectedBy(Collection<String> changedClasses) {
+        this.changedClasses = (changedClasses == null) ? null :
+                Collections.unmodifiableSet(new HashSet<>(changedClasses));
+        return this;
+    }
+
+    /**
+     * Registers a listener, which is notified of the results of every run that uses these
+     * options as they happen (including the replayed results of a cached run)
+     * @param listener: the listener
+     * @return this object
+     * @throws IllegalArgumentException: in case the given listener is null
+     */
+    public OOPRunOptions listener(OOPTestListener listener) throws IllegalArgumentException {
+        if(listener == null) {
+            throw new IllegalArgumentException();
+        }
+        listeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Sets the shard of the tests that should run, so that a test class can be split between
+     * several JVMs. The tests of an UNORDERED test class are assigned to shards by a stable hash
+     * of their names, and an ORDERED test class is assigned as a whole, by a stable hash of the
+     * class's name. Every test is assigned to exactly one shard
+     * @see OOPShardLauncher
+     * @param shardIndex: the shard that should run, between 0 and the amount of shards
+     * @param shardCount: the positive amount of shards
+     * @return this object
+     * @throws IllegalArgumentException: in case the given shard does not exist
+     */
+    public OOPRunOptions shard(int shardIndex, int shardCount) throws IllegalArgumentException {
+        if(shardCount <= 0 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException();
+        }
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        return this;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getClassParallelism() {
+        return classParallelism;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public boolean isOrderedWaves() {
+        return orderedWaves;
+    }
+
+    /**
+     * @return the amount of failed tests that stops the run, or 0 if the run is never stopped
+     */
+    public int getFailureBudget() {
+        return failureBudget;
+    }
+
+    public OOPSnapshotMode getSnapshotMode() {
+        return snapshotMode;
+    }
+
+    public long getSnapshotMemoryBudget() {
+        return snapshotMemoryBudget;
+    }
+
+    public Path getResultCache() {
+        return resultCache;
+    }
+
+    public Path getImpactMap() {
+        return impactMap;
+    }
+
+    public Set<String> getChangedClasses() {
+        return changedClasses;
+    }
+
+    public List<OOPTestListener> getListeners() {
+        return Collections.unmodifiableList(listeners);
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+}
@@ -0,0 +1,106 @@
+package OOP.Solution;
+
+import OOP.Provided.OOPResult;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a single test class between several local worker JVMs, and merges their summaries.
+ * Every worker runs one shard of the class's tests (see {@link OOPRunOptions#shard(int, int)}):
+ * the tests of an UNORDERED class are spread between the workers, while an ORDERED class runs
+ * as a whole on one of them. The workers send their results back over a pipe, in the binary
+ * format of {@link OOPWire}.
+ * Each worker runs the class's OOPSetup methods on its own instance. The workers share the
+ * files of the result cache (in which each worker caches its own shard) and of the impact map,
+ * and the listeners are notified of every test's result as it's received from its worker.
+ * @see OOPWorker
+ */
+public final class OOPShardLauncher {
+
+    private OOPShardLauncher() {
+    }
+
+    /**
+     * Runs a test class on several worker JVMs
+     * @param testClass: the test class
+     * @param tag: the tag of the tests that should run
+     * @param options: the run options of every worker (their shard options are ignored). their
+     *               listeners are notified by the current JVM, from its calling thread
+     * @param shards: the positive amount of worker JVMs
+     * @return the merged summary of all the workers. its duration is the wall-clock duration of
+     * the whole launch
+     * @throws IllegalArgumentException: in case the class isn't an OOPUnit test class, or in case
+     * the workers couldn't be started or failed to run the class
+     */
+    public static OOPTestSummary runClass(Class<?> testClass, String tag, OOPRunOptions options,
+                                          int shards) throws IllegalArgumentException {
+        if(tag == null || options == null || shards <= 0) {
+            throw new IllegalArgumentException();
+        }
+        if(testClass == null || testClass.getAnnotationsByType(OOPTestClass.class).length == 0) {
+            //Given class is either not a class, or not an OOPUnit test class
+            throw new IllegalArgumentException();
+        }
+        long startTime = System.nanoTime();
+        List<Process> workers = new ArrayList<>(shards);
+        try {
+            //All of the workers are started (and sent their shards) before any of them is awaited
+            for(int i = 0; i < shards; i++) {
+                Process worker = OOPWorker.start();
+                workers.add(worker);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        worker.getOutputStream()))) {
+                    OOPWire.writeRequest(out, new OOPWire.Request(testClass.getName(), tag,
+                            copyOptions(options).shard(i, shards)));
+                }
+            }
+            Map<String, OOPResult> results = new HashMap<>();
+            for(Process worker : workers) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                        worker.getInputStream()))) {
+                    results.putAll(OOPWire.readResponse(in, testClass, options.getListeners())
+                            .getSummary().getResults());
+                }
+            }
+            long durationNanos = System.nanoTime() - startTime;
+            for(OOPTestListener listener : options.getListeners()) {
+                listener.classFinished(testClass, durationNanos);
+            }
+            return new OOPTestSummary(results, durationNanos);
+        } catch (IOException e) {
+            //A worker couldn't be started, or it died before sending its summary
+            throw new IllegalArgumentException(e);
+        } finally {
+            for(Process worker : workers) {
+                worker.destroy();
+            }
+        }
+    }
+
+    /**
+     * @param options: run options
+     * @return new run options, with the same options as the given ones, other than their
+     * listeners
+     */
+    private static OOPRunOptions copyOptions(OOPRunOptions options) {
+        OOPRunOptions res = OOPRunOptions.defaults()
+                .parallel(options.isParallel())
+                .parallelism(options.getParallelism())
+                .virtualThreads(options.isVirtualThreads())
+                .maxConcurrency(options.getMaxConcurrency())
+                .orderedWaves(options.isOrderedWaves())
+                .snapshotMode(options.getSnapshotMode())
+                .snapshotMemoryBudget(options.getSnapshotMemoryBudget())
+                .resultCache(options.getResultCache())
+                .impactMap(options.getImpactMap())
+                .affectedBy(options.getChangedClasses());
+        if(options.getFailureBudget() > 0) {
+            res.failureBudget(options.getFailureBudget());
+        }
+        return res;
+    }
+}
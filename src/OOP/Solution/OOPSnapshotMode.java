@@ -0,0 +1,40 @@
+package OOP.Solution;
+
+/**
+ * The ways in which the test class instance is backed-up before a test's OOPBefore and OOPAfter
+ * methods (and between a repeated test's iterations), and restored after they fail.
+ * @see OOPRunOptions#snapshotMode(OOPSnapshotMode)
+ */
+public enum OOPSnapshotMode {
+    /**
+     * Each field's value is cloned, copied by its copy constructor, or shared (the default).
+     * Objects that the copied values refer to are shared with the backup
+     */
+    SHALLOW,
+    /**
+     * The whole object graph that's reachable from the fields is copied, including cycles,
+     * arrays and the common java.util collections, so a restore undoes changes anywhere in the
+     * graph. Values of immutable types are shared, and objects that can't be copied field by field
+     * (e.g. instances of other platform classes) are copied as in the SHALLOW mode
+     */
+    DEEP,
+    /**
+     * Nothing is copied: the backup is the vector of the fields' current values, and a restore
+     * writes back only the fields that were assigned since, so its cost is proportional to the
+     * change. Changes inside the objects that the fields refer to are not undone
+     */
+    JOURNAL,
+    /**
+     * The fields' values are serialized into off-heap memory, and are deserialized only when the
+     * instance is restored, so large fixtures do not double the heap's usage. A snapshot whose
+     * values are not serializable, or that would exceed the run's memory budget (see
+     * {@link OOPRunOptions#snapshotMemoryBudget(long)}), is taken as in the SHALLOW mode.
+     * A restore is a Java deserialization, so unlike the SHALLOW mode:
+     * 1) the whole graph of a serialized value is restored as a copy: the objects that it shares
+     *    with other objects (outside the instance's fields) are no longer shared once restored
+     * 2) transient fields of the serialized objects are restored with their default values
+     * 3) the objects' own readObject / readResolve methods run, and restore whatever they restore
+     * Fixtures whose values depend on either should use the SHALLOW or DEEP mode
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,106 @@
+package OOP.Solution;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what the snapshots of a single runClass call copied: the backups that are taken before
+ * each test's OOPBefore and OOPAfter methods (and between a repeated test's iterations), the
+ * copies of concurrent and timed tests, and the restores from these backups (along with the field
+ * values that the restores wrote back).
+ * Values whose type is immutable are shared instead of being copied, and are counted as elided.
+ * Sizes are estimated shallow sizes, assuming compressed references.
+ * Tests of a concurrent run share the stats, so all of the counters are thread-safe.
+ * @see OOPTestSummary#getSnapshotStats()
+ */
+public final class OOPSnapshotStats {
+
+    //Attribute: the amount of snapshots that were taken
+    private final LongAdder snapshots = new LongAdder();
+
+    //Attribute: the amount of objects that were copied, and their estimated size in bytes
+    private final LongAdder objectsCopied = new LongAdder();
+    private final LongAdder bytesCopied = new LongAdder();
+
+    //Attribute: the amount of values that were shared instead of being copied, being immutable
+    private final LongAdder valuesElided = new LongAdder();
+
+    //Attribute: the amount of field values that restores wrote back into the instance
+    private final LongAdder valuesRestored = new LongAdder();
+
+    OOPSnapshotStats() {
+    }
+
+    void recordSnapshot() {
+        snapshots.increment();
+    }
+
+    /**
+     * @param copy: an object that was copied
+     */
+    void recordCopy(Object copy) {
+        objectsCopied.increment();
+        bytesCopied.add(OOPFieldPlan.shallowSize(copy));
+    }
+
+    void recordElided() {
+        valuesElided.increment();
+    }
+
+    /**
+     * @param restored: the amount of field values that a restore wrote back
+     */
+    void recordRestored(long restored) {
+        valuesRestored.add(restored);
+    }
+
+    /**
+     * Records the totals of a snapshot's (or a restore's) copies at once
+     * @param objects: the amount of copied objects
+     * @param bytes: the estimated size of the copied objects
+     * @param elided: the amount of values that were shared instead of being copied
+     */
+    void record(long objects, long bytes, long elided) {
+        objectsCopied.add(objects);
+        bytesCopied.add(bytes);
+        valuesElided.add(elided);
+    }
+
+    /**
+     * @return the amount of snapshots that were taken
+     */
+    public long getSnapshots() {
+        return snapshots.sum();
+    }
+
+    /**
+     * @return the amount of objects that were copied by snapshots and restores (including the
+     * copies of the test class instance itself)
+     */
+    public long getObjectsCopied() {
+        return objectsCopied.sum();
+    }
+
+    /**
+     * @return the estimated amount of bytes that were copied by snapshots and restores
+     */
+    public long getBytesCopied() {
+        return bytesCopied.sum();
+    }
+
+    /**
+     * @return the amount of values that were shared instead of being copied, since they're
+     * immutable
+     */
+    public long getValuesElided() {
+        return valuesElided.sum();
+    }
+
+    /**
+     * @return the amount of field values that restores wrote back into the test class instance.
+     * a JOURNAL restore writes back only the fields that were changed, while the other modes
+     * write back all of them
+     */
+    public long getValuesRestored() {
+        return valuesRestored.sum();
+    }
+}
@@ -0,0 +1,32 @@
+package OOP.Solution;
+
+/**
+ * Takes snapshots of a test class instance, and restores the instance from them.
+ * A snapshot is never changed by a restore, so the same snapshot may be restored several times.
+ * @see OOPSnapshotMode
+ */
+interface OOPSnapshotStrategy {
+
+    /**
+     * @param instance: the test class instance
+     * @param stats: the run's snapshot stats, which count the snapshot
+     * @return a snapshot of the instance's fields
+     */
+    Object snapshot(Object instance, OOPSnapshotStats stats);
+
+    /**
+     * Restores the instance's fields to their values in a snapshot
+     * @param instance: the test class instance
+     * @param snapshot: a snapshot of the instance, which was taken by this strategy
+     * @param stats: the run's snapshot stats, which count the copied values
+     */
+    void restore(Object instance, Object snapshot, OOPSnapshotStats stats);
+
+    /**
+     * Releases the resources that a snapshot holds, once it's no longer restored. A snapshot that
+     * holds nothing but heap objects (which are collected) needs no release
+     * @param snapshot: a snapshot of the instance, which was taken by this strategy
+     */
+    default void release(Object snapshot) {
+    }
+}
@@ -11,10 +11,20 @@ import java.lang.annotation.Target;
  * Annotation's {@code order()} - the ordinal order of this test, which represents when it runs
  * Annotation's {@code tag()} - the test's tag, which will be filtered out if the user does not
  * wish to run it. By default - an empty tag means that the test will always run
+ * Annotation's {@code timeout()} - the test's timeout in milliseconds, after which it terminates
+ * with TIMEOUT. By default - the class's timeout is used (see {@link OOPTestClass#timeout()})
+ * Annotation's {@code repeat()} - the amount of times the test is invoked, restoring the instance
+ * between the invocations. The durations of the invocations are recorded (see
+ * {@link OOPTimingStats}). By default - the test is invoked once, and is not timed
+ * Annotation's {@code warmup()} - the amount of untimed invocations before the repeated ones.
+ * By default - no warmup
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface OOPTest {
     int order() default 0;
     String tag() default "";
+    long timeout() default 0;
+    int repeat() default 1;
+    int warmup() default 0;
 }
@@ -10,6 +10,11 @@ import java.lang.annotation.Target;
  * We use this annotation to mark an OOP tests' class, which will contain test methods.
  * Annotation's {@code value()} - represents whether the class's test methods should be run in
  * order or not. By default - the tests do not run in a given order
+ * Annotation's {@code timeout()} - the default timeout of the class's test methods in milliseconds.
+ * By default - the tests do not have a timeout
+ * Annotation's {@code dependsOn()} - the classes that the tests exercise, whose changes should
+ * invalidate the class's cached results (see {@link OOPRunOptions#resultCache}). By default -
+ * only the test class and its superclasses are considered
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
@@ -20,4 +25,8 @@ public @interface OOPTestClass {
     }
 
     OOPTestClassType value() default OOPTestClassType.UNORDERED;
+
+    long timeout() default 0;
+
+    Class<?>[] dependsOn() default {};
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package OOP.Solution;
+
+import OOP.Provided.OOPResult;
+
+/**
+ * The event of a single test, which is passed to the notifications of an
+ * {@link OOPTestListener}. A single event object is created for each test, and is updated
+ * between its notifications, so notifying listeners allocates nothing else.
+ */
+public final class OOPTestEvent {
+
+    /**
+     * The phases of a single test
+     */
+    public enum Phase {
+        BEFORE, TEST, AFTER
+    }
+
+    //Attribute: the test class
+    private final Class<?> testClass;
+
+    //Attribute: the test method's name
+    private final String testName;
+
+    //Attribute: the current (or last finished) phase of the test, or null if none started
+    private Phase phase;
+
+    //Attribute: the time at which the current phase started, by System.nanoTime()
+    private long phaseStartNanos;
+
+    //Attribute: the duration of the last finished phase, in nanoseconds
+    private long phaseNanos;
+
+    //Attribute: the test's result, or null if it's not known yet
+    private OOPResult result;
+
+    OOPTestEvent(Class<?> testClass, String testName) {
+        this.testClass = testClass;
+        this.testName = testName;
+    }
+
+    public Class<?> getTestClass() {
+        return testClass;
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    /**
+     * @return the phase that finished (in a phaseFinished notification), or null if the test has
+     * no phases (e.g. a test that did not run)
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the duration of the phase that finished, in nanoseconds
+     */
+    public long getPhaseNanos() {
+        return phaseNanos;
+    }
+
+    /**
+     * @return the test's result so far: null until the test ran, and the test's final result in
+     * a testFinished notification
+     */
+    public OOPResult getResult() {
+        return result;
+    }
+
+    /**
+     * Starts a phase of the test
+     * @param phase: the starting phase
+     */
+    void startPhase(Phase phase) {
+        this.phase = phase;
+        this.phaseStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Ends the test's current phase, and measures its duration
+     */
+    void endPhase() {
+        this.phaseNanos = System.nanoTime() - phaseStartNanos;
+    }
+
+    void setResult(OOPResult result) {
+        this.result = result;
+    }
+}
@@ -0,0 +1,49 @@
+package OOP.Solution;
+
+/**
+ * Receives the results of a runClass call as they happen, instead of only at the end of the run.
+ * For every test of the run, the listener is notified when the test starts, after each of its
+ * phases (its OOPBefore methods, the test method itself and its OOPAfter methods), and when its
+ * final result is known. Tests that terminate with NOT_RUN are only notified as finished.
+ * Once all of the run's tests finished, the listener is notified that the class finished.
+ * Once a run is stopped by its failure budget, its interrupted tests notify no more phases, and
+ * finish with NOT_RUN.
+ * A test's notifications all receive the same event object, which is updated between them:
+ * a listener that needs an event's data after the notification returns should copy it.
+ * The tests of a concurrent run (and the classes of a batch run) notify the listener from their
+ * own threads, so a listener that's used by such runs should be thread-safe.
+ * Runs in worker JVMs (see {@link OOPWorkerPool} and {@link OOPShardLauncher}) notify the
+ * listener only of each test's final result, as it's received from the worker, and of the
+ * class's finish.
+ * All of the notifications do nothing by default.
+ * @see OOPRunOptions#listener(OOPTestListener)
+ * @see OOPTestSummary: the results of a runClass call, which are gathered by a listener
+ */
+public interface OOPTestListener {
+
+    /**
+     * @param event: the test's event, whose result is still null
+     */
+    default void testStarted(OOPTestEvent event) {
+    }
+
+    /**
+     * @param event: the test's event, whose phase and phase duration describe the phase that
+     *             finished
+     */
+    default void phaseFinished(OOPTestEvent event) {
+    }
+
+    /**
+     * @param event: the test's event, along with the test's final result
+     */
+    default void testFinished(OOPTestEvent event) {
+    }
+
+    /**
+     * @param testClass: the test class whose run finished
+     * @param durationNanos: the wall-clock duration of the run, in nanoseconds
+     */
+    default void classFinished(Class<?> testClass, long durationNanos) {
+    }
+}
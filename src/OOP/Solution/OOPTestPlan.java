@@ -0,0 +1,363 @@
+package OOP.Solution;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An immutable description of how an OOPUnit test class should be run: its OOPSetup, OOPBefore,
+ * OOPTest and OOPAfter methods (listed in the order in which they should run, each bound to an
+ * {@link OOPMethodInvoker}), its OOPExceptionRule field and whether its tests are ordered.
+ * A plan is discovered only once per test class, and is then cached and shared between all the
+ * runs of that class (and between threads). Filtering the tests by a tag is applied on top of the
+ * cached plan, so running the same class with different tags does not re-discover its methods.
+ * When the test class has a plan that was generated at compile time ({@link OOPGeneratedPlan}),
+ * it is used instead of discovering the class's methods by reflection.
+ * @see #of(Class)
+ */
+final class OOPTestPlan {
+
+    //Attribute: the plans cache, which lazily computes a single plan for each test class
+    private static final ClassValue<OOPTestPlan> plans = new ClassValue<OOPTestPlan>() {
+        @Override
+        protected OOPTestPlan computeValue(Class<?> testClass) {
+            return new OOPTestPlan(describe(testClass));
+        }
+    };
+
+    //Attribute: the default tag for tests that are not tagged
+    static final String defaultTag = "";
+
+    //Attribute: the test class which this plan describes
+    private final Class<?> testClass;
+
+    //Attribute: whether the test methods should run in the order given by OOPTest's order()
+    private final boolean ordered;
+
+    //Attribute: the OOPUnit annotated methods' invokers, listed in the order in which they run
+    private final List<OOPMethodInvoker> setupMethods;
+    private final List<OOPMethodInvoker> beforeMethods;
+    private final List<OOPMethodInvoker> testMethods;
+    private final List<OOPMethodInvoker> afterMethods;
+
+    //Attribute: the test methods' tags, in the same order as the test methods
+    private final String[] testTags;
+
+    //Attribute: maps each test name to its OOPTest's order()
+    private final Map<String, Integer> testOrders = new HashMap<>();
+
+    //Attribute: maps each test name to its timeout in milliseconds, for tests that have one
+    private final Map<String, Long> testTimeouts = new HashMap<>();
+
+    //Attribute: maps each repeated test's name to its repetitions: {warmup, repeat}
+    private final Map<String, int[]> testRepetitions = new HashMap<>();
+
+    //Attribute: the repetitions of a test that's invoked once
+    private static final int[] noRepetitions = {0, 1};
+
+    //Attribute: maps each test name to its OOPBefore methods, in the order in which they run
+    private final Map<String, OOPMethodInvoker[]> beforeHooks;
+
+    //Attribute: maps each test name to its OOPAfter methods, in the order in which they run
+    private final Map<String, OOPMethodInvoker[]> afterHooks;
+
+    //Attribute: the hooks of a test that has no OOPBefore / OOPAfter methods
+    private static final OOPMethodInvoker[] noHooks = new OOPMethodInvoker[0];
+
+    //Attribute: the class's OOPExceptionRule annotated field, or null if it doesn't have one
+    private final Field exceptionRuleField;
+
+    //Attribute: the test methods filtered by a tag, memoized for each tag that was requested
+    private final ConcurrentMap<String, List<OOPMethodInvoker>> testsByTag =
+            new ConcurrentHashMap<>();
+
+    private OOPTestPlan(OOPPlanBuilder builder) {
+        this.testClass = builder.getTestClass();
+        OOPTestClass classAnnotation = testClass.getDeclaredAnnotation(OOPTestClass.class);
+        this.ordered = classAnnotation.value() == OOPTestClass.OOPTestClassType.ORDERED;
+        this.setupMethods = Collections.unmodifiableList(builder.getMethods(OOPSetup.class));
+        this.beforeMethods = Collections.unmodifiableList(builder.getMethods(OOPBefore.class));
+        this.afterMethods = Collections.unmodifiableList(builder.getMethods(OOPAfter.class));
+        //Sort all of the OOPTest annotated methods according to the user's given order
+        Integer[] testsOrder = sortOOPTests(builder.getTestOrders());
+        List<OOPMethodInvoker> tests = new ArrayList<>(testsOrder.length);
+        this.testTags = new String[testsOrder.length];
+        for(int i = 0; i < testsOrder.length; i++) {
+            tests.add(builder.getMethods(OOPTest.class).get(testsOrder[i]));
+            testTags[i] = builder.getTestTags().get(testsOrder[i]);
+            testOrders.put(tests.get(i).getName(), builder.getTestOrders().get(testsOrder[i]));
+            //A test without a timeout of its own gets the class's timeout
+            long timeout = builder.getTestTimeouts().get(testsOrder[i]);
+            if(timeout <= 0) {
+                timeout = classAnnotation.timeout();
+            }
+            if(timeout > 0) {
+                testTimeouts.put(tests.get(i).getName(), timeout);
+            }
+            int[] repetitions = builder.getTestRepetitions().get(testsOrder[i]);
+            if(repetitions[0] < 0 || repetitions[1] < 1) {
+                //A test can't be invoked a negative amount of times
+                throw new IllegalArgumentException();
+            }
+            if(repetitions[0] != noRepetitions[0] || repetitions[1] != noRepetitions[1]) {
+                testRepetitions.put(tests.get(i).getName(), repetitions);
+            }
+        }
+        this.testMethods = Collections.unmodifiableList(tests);
+        this.beforeHooks = indexHooks(beforeMethods, builder.getHookValues(OOPBefore.class));
+        this.afterHooks = indexHooks(reversed(afterMethods),
+                reversed(builder.getHookValues(OOPAfter.class)));
+        this.exceptionRuleField = builder.getExceptionRuleField();
+        testsByTag.put(defaultTag, testMethods);
+    }
+
+    /**
+     * Returns the cached plan of a given test class, discovering it on the first request
+     * Assumption: the class is annotated by OOPTestClass
+     * @param testClass: the test class
+     * @return the test class's plan
+     */
+    static OOPTestPlan of(Class<?> testClass) {
+        return plans.get(testClass);
+    }
+
+    Class<?> getTestClass() {
+        return testClass;
+    }
+
+    boolean isOrdered() {
+        return ordered;
+    }
+
+    List<OOPMethodInvoker> getSetupMethods() {
+        return setupMethods;
+    }
+
+    List<OOPMethodInvoker> getBeforeMethods() {
+        return beforeMethods;
+    }
+
+    List<OOPMethodInvoker> getAfterMethods() {
+        return afterMethods;
+    }
+
+    /**
+     * Returns the OOPBefore / OOPAfter methods that apply to a given test method
+     * @param annotation: hooks' annotation type: either OOPBefore or OOPAfter
+     * @param testName: the test method's name
+     * @return the test's hooks, in the order in which they should run: OOPBefore methods from the
+     * top of the hierarchy tree to the bottom, and OOPAfter methods from the bottom to the top.
+     * the returned array is shared, and should not be modified
+     */
+    OOPMethodInvoker[] getHooks(Class<? extends Annotation> annotation, String testName) {
+        assert(annotation == OOPBefore.class || annotation == OOPAfter.class);
+        OOPMethodInvoker[] hooks = (annotation == OOPBefore.class) ?
+                beforeHooks.get(testName) : afterHooks.get(testName);
+        return (hooks == null) ? noHooks : hooks;
+    }
+
+    Field getExceptionRuleField() {
+        return exceptionRuleField;
+    }
+
+    /**
+     * @param test: one of the plan's test methods
+     * @return the test's OOPTest's order()
+     */
+    int getOrder(OOPMethodInvoker test) {
+        return testOrders.get(test.getName());
+    }
+
+    /**
+     * @param test: one of the plan's test methods
+     * @return the test's timeout in milliseconds, or 0 if the test does not have a timeout
+     */
+    long getTimeout(OOPMethodInvoker test) {
+        Long timeout = testTimeouts.get(test.getName());
+        return (timeout == null) ? 0 : timeout;
+    }
+
+    /**
+     * @param test: one of the plan's test methods
+     * @return the test's amount of untimed warmup invocations
+     */
+    int getWarmup(OOPMethodInvoker test) {
+        return testRepetitions.getOrDefault(test.getName(), noRepetitions)[0];
+    }
+
+    /**
+     * @param test: one of the plan's test methods
+     * @return the test's amount of timed invocations, or 1 if the test is not repeated
+     */
+    int getRepeat(OOPMethodInvoker test) {
+        return testRepetitions.getOrDefault(test.getName(), noRepetitions)[1];
+    }
+
+    /**
+     * @param test: one of the plan's test methods
+     * @return true iff the test is invoked several times, and its invocations are timed
+     */
+    boolean isRepeated(OOPMethodInvoker test) {
+        return testRepetitions.containsKey(test.getName());
+    }
+
+    /**
+     * Returns the test methods that should be invoked for a given tag, in the order in which they
+     * should be invoked
+     * @param tag: the tag that all the returned OOPTest methods should have. if the given tag is
+     *           an empty string "" - all OOPTest methods are qualified
+     * @return an unmodifiable list of the qualified OOPTest methods' invokers
+     */
+    List<OOPMethodInvoker> getTests(String tag) {
+        return testsByTag.computeIfAbsent(tag, this::filterTests);
+    }
+
+    /**
+     * Filters out the test methods that aren't tagged with the given tag
+     * @param tag: the desired tag
+     * @return an unmodifiable list of the test methods tagged with the given tag, in their order
+     */
+    private List<OOPMethodInvoker> filterTests(String tag) {
+        List<OOPMethodInvoker> tagsFiltered = new ArrayList<>();
+        for(int i = 0; i < testTags.length; i++) {
+            if(testTags[i].equals(tag)) {
+                tagsFiltered.add(testMethods.get(i));
+            }
+        }
+        return Collections.unmodifiableList(tagsFiltered);
+    }
+
+    /**
+     * Builds the index of the tests' OOPBefore / OOPAfter methods
+     * @param hooks: the OOPBefore / OOPAfter methods, in the order in which they should run
+     * @param hookValues: the hooks' annotations' {@code value()}, in the same order as the hooks
+     * @return a dictionary which maps each test method's name that appears in the hooks'
+     * annotations' {@code value()} to the hooks that should run with it, in their order
+     */
+    private static Map<String, OOPMethodInvoker[]> indexHooks(List<OOPMethodInvoker> hooks,
+                                                              List<String[]> hookValues) {
+        Map<String, List<OOPMethodInvoker>> hooksLists = new HashMap<>();
+        for(int i = 0; i < hooks.size(); i++) {
+            OOPMethodInvoker hook = hooks.get(i);
+            for(String testName : hookValues.get(i)) {
+                List<OOPMethodInvoker> testHooks =
+                        hooksLists.computeIfAbsent(testName, name -> new ArrayList<>());
+                if(testHooks.isEmpty() || testHooks.get(testHooks.size() - 1) != hook) {
+                    //A test name that's listed twice in the same hook runs the hook only once
+                    testHooks.add(hook);
+                }
+            }
+        }
+        Map<String, OOPMethodInvoker[]> index = new HashMap<>();
+        hooksLists.forEach((testName, testHooks) ->
+                index.put(testName, testHooks.toArray(new OOPMethodInvoker[testHooks.size()])));
+        return index;
+    }
+
+    /**
+     * @param list: a list to be reversed
+     * @return a new list which consists of the given list's elements, in the reversed order
+     */
+    private static<T> List<T> reversed(List<T> list) {
+        List<T> reversedList = new ArrayList<>(list);
+        Collections.reverse(reversedList);
+        return reversedList;
+    }
+
+    /**
+     * Describes a test class's OOPUnit methods and exception rule: by its generated plan if it has
+     * one, or by discovering them through reflection otherwise
+     * @param testClass: the test class
+     * @return a builder which holds the description of the test class
+     */
+    private static OOPPlanBuilder describe(Class<?> testClass) {
+        OOPPlanBuilder builder = new OOPPlanBuilder(testClass);
+        OOPGeneratedPlan generatedPlan = getGeneratedPlan(testClass);
+        if(generatedPlan != null) {
+            generatedPlan.describe(builder);
+            return builder;
+        }
+        /*
+         * Fill the builder with the appropriate methods for each annotation.
+         * Methods are ordered from the top of the hierarchy tree, to the bottom
+         */
+        for(OOPHierarchyResolver.ResolvedMethod info : OOPHierarchyResolver.resolve(testClass)) {
+            builder.method(info.getMethod(), info.getAnnotation());
+        }
+        Field exceptionRuleField = getOOPExceptionField(testClass);
+        if(exceptionRuleField != null) {
+            builder.exceptionRule(exceptionRuleField);
+        }
+        return builder;
+    }
+
+    /**
+     * Loads the plan that was generated for a given test class at compile time
+     * @param testClass: the test class
+     * @return a new instance of the class's generated plan, or null if it doesn't have one
+     */
+    private static OOPGeneratedPlan getGeneratedPlan(Class<?> testClass) {
+        Class<?> planClass;
+        try {
+            planClass = Class.forName(testClass.getName() + OOPGeneratedPlan.planSuffix, true,
+                    testClass.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            //The test class has no generated plan
+            return null;
+        }
+        if(!OOPGeneratedPlan.class.isAssignableFrom(planClass)) {
+            //An unrelated class that happens to have the plan's name
+            return null;
+        }
+        try {
+            return (OOPGeneratedPlan) planClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            //The generated plan can't be instantiated: discover the class by reflection instead
+            return null;
+        }
+    }
+
+    /**
+     * Gets the OOPExceptionRule annotated OOPExpectedException field in the class
+     * @param testClass: the test class in which we find the field
+     * @return the class's OOPExpectedException field if exists, or null otherwise
+     */
+    private static Field getOOPExceptionField(Class<?> testClass) {
+        Class<?> current = testClass;
+        Field result = null;
+        while(current.getSuperclass() != null) {
+            for(Field field : current.getDeclaredFields()) {
+                if(field.getAnnotation(OOPExceptionRule.class) != null) {
+                    field.setAccessible(true);
+                    result = field;
+                }
+            }
+            current = current.getSuperclass();
+        }
+        return result;
+    }
+
+    /**
+     * Sorts the OOPTest methods in the order in which they should be invoked
+     * @param orders: the OOPTest methods' {@code order()}, in the order in which they were
+     *              described
+     * @return the indices of the OOPTest methods, in the order in which they should be invoked.
+     * test methods' order will take place only if the test class's OOPTestClass annotation is
+     * marked with the ORDERED enum instance
+     */
+    private Integer[] sortOOPTests(List<Integer> orders) {
+        Integer[] indices = new Integer[orders.size()];
+        for(int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        if(!ordered) {
+            //No order is required for the test methods: do not sort methods
+            return indices;
+        }
+        //Test class is ORDERED: sort the methods according to their OOPTest annotations' order
+        Arrays.sort(indices, Comparator.comparingInt(orders::get));
+        return indices;
+    }
+}
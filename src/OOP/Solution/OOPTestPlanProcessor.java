@@ -0,0 +1,294 @@
+package OOP.Solution;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.annotation.Annotation;
+import java.util.*;
+
+/**
+ * An annotation processor that generates a plan ({@link OOPGeneratedPlan}) for every OOPTestClass
+ * annotated class, so that runClass does not have to discover the class's methods through
+ * reflection at runtime.
+ * The processor resolves the class's OOPUnit methods (excluding the overridden methods, exactly
+ * like {@link OOPHierarchyResolver} does at runtime) and its OOPExceptionRule field at compile
+ * time. Each method is invoked directly by the generated plan if it is accessible from the test
+ * class's package, and is otherwise looked up by its name alone (e.g. private methods).
+ *
+ * The processor is not registered as a service (it's compiled along with the classes that it
+ * would process), so plans are generated only when it's selected explicitly, with the compiled
+ * framework on the processor path:
+ * {@code javac -processorpath <framework classes> -processor OOP.Solution.OOPTestPlanProcessor ...}
+ * Classes that were compiled without it are discovered through reflection.
+ */
+@SupportedAnnotationTypes("OOP.Solution.OOPTestClass")
+public class OOPTestPlanProcessor extends AbstractProcessor {
+
+    //Attribute: the supported OOPUnit method annotations
+    private static final List<Class<? extends Annotation>> OOPUnitAnnotations =
+            Arrays.asList(OOPSetup.class, OOPBefore.class, OOPTest.class, OOPAfter.class);
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for(TypeElement testClass :
+                ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(OOPTestClass.class))) {
+            if(testClass.getKind() != ElementKind.CLASS) {
+                //OOPTestClass should only mark classes
+                continue;
+            }
+            try {
+                writePlan(testClass);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Could not generate an OOPUnit plan: " + e.getMessage(), testClass);
+            }
+        }
+        //Other processors may also process OOPTestClass annotated classes
+        return false;
+    }
+
+    /**
+     * Generates the plan's source file of a given test class
+     * @param testClass: the test class
+     * @throws IOException: in case the source file can't be written
+     */
+    private void writePlan(TypeElement testClass) throws IOException {
+        Elements elements = processingEnv.getElementUtils();
+        String packageName = elements.getPackageOf(testClass).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(testClass).toString();
+        String planName = binaryName.substring(binaryName.lastIndexOf('.') + 1) +
+                OOPGeneratedPlan.planSuffix;
+        boolean classAccessible = isAccessibleType(testClass);
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile((packageName.isEmpty() ? "" : packageName + ".") + planName,
+                        testClass).openWriter())) {
+            if(!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * The OOPUnit plan of {@code " + binaryName + "}.");
+            out.println(" * Generated by " + OOPTestPlanProcessor.class.getName() +
+                    ": do not edit.");
+            out.println(" */");
+            out.println("public final class " + planName + " implements " +
+                    OOPGeneratedPlan.class.getCanonicalName() + " {");
+            out.println();
+            out.println("    @Override");
+            out.println("    public void describe(" + OOPPlanBuilder.class.getCanonicalName() +
+                    " plan) {");
+            VariableElement exceptionRule = null;
+            int exceptionRuleDepth = 0;
+            int depth = 0;
+            for(TypeElement current = testClass; current != null;
+                current = superclassOf(current), depth++) {
+                for(VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                    if(field.getAnnotation(OOPExceptionRule.class) != null) {
+                        //The rule of the top of the hierarchy tree is the one that's used
+                        exceptionRule = field;
+                        exceptionRuleDepth = depth;
+                    }
+                }
+            }
+            if(exceptionRule != null) {
+                out.println("        plan.exceptionRule(" + exceptionRuleDepth + ", " +
+                        literal(exceptionRule.getSimpleName()) + ");");
+            }
+            for(ResolvedMethod resolved : resolve(testClass)) {
+                out.println("        plan." + describeMethod(resolved, testClass, classAccessible,
+                        packageName) + ";");
+            }
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    /**
+     * Generates the builder call that describes a single OOPUnit method
+     * @param resolved: the method, and its depth in the test class's hierarchy
+     * @param testClass: the test class
+     * @param classAccessible: whether the test class is accessible from the generated plan
+     * @param packageName: the generated plan's package
+     * @return the builder's call, without a terminating semicolon
+     */
+    private String describeMethod(ResolvedMethod resolved, TypeElement testClass,
+                                  boolean classAccessible, String packageName) {
+        ExecutableElement method = resolved.method;
+        String name = literal(method.getSimpleName());
+        String invoker = isDirectlyInvokable(method, classAccessible, packageName) ?
+                "target -> ((" + testClass.getQualifiedName() + ") target)." +
+                        method.getSimpleName() + "()" :
+                "plan.declared(" + resolved.depth + ", " + name + ")";
+        OOPSetup setup = method.getAnnotation(OOPSetup.class);
+        if(setup != null) {
+            return "setup(" + name + ", " + invoker + ")";
+        }
+        OOPBefore before = method.getAnnotation(OOPBefore.class);
+        if(before != null) {
+            return "before(" + name + ", " + literal(before.value()) + ", " + invoker + ")";
+        }
+        OOPTest test = method.getAnnotation(OOPTest.class);
+        if(test != null) {
+            String extra = "";
+            if(test.warmup() != 0 || test.repeat() != 1) {
+                extra = test.timeout() + "L, " + test.warmup() + ", " + test.repeat() + ", ";
+            } else if(test.timeout() > 0) {
+                extra = test.timeout() + "L, ";
+            }
+            return "test(" + name + ", " + test.order() + ", " + literal(test.tag()) + ", " +
+                    extra + invoker + ")";
+        }
+        OOPAfter after = method.getAnnotation(OOPAfter.class);
+        assert(after != null);
+        return "after(" + name + ", " + literal(after.value()) + ", " + invoker + ")";
+    }
+
+    /**
+     * Resolves the OOPUnit methods in a test class's hierarchy that should be invoked
+     * @param testClass: the test class
+     * @return the methods that aren't overridden, ordered from the top of the hierarchy tree to
+     * the bottom
+     * @see OOPHierarchyResolver
+     */
+    private List<ResolvedMethod> resolve(TypeElement testClass) {
+        List<ResolvedMethod> resolution = new ArrayList<>();
+        Set<String> resolvedNames = new HashSet<>();
+        int depth = 0;
+        for(TypeElement current = testClass; current != null;
+            current = superclassOf(current), depth++) {
+            for(ExecutableElement m : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if(!isOOPUnitMethod(m)) {
+                    //Current method isn't part of the OOPUnit framework
+                    continue;
+                }
+                String name = m.getSimpleName().toString();
+                boolean overridable = !m.getModifiers().contains(Modifier.STATIC) &&
+                        !m.getModifiers().contains(Modifier.PRIVATE);
+                if(overridable && resolvedNames.contains(name)) {
+                    //The method is overridden by a method that was already resolved
+                    continue;
+                }
+                resolution.add(new ResolvedMethod(m, depth));
+                resolvedNames.add(name);
+            }
+        }
+        Collections.reverse(resolution);
+        return resolution;
+    }
+
+    /**
+     * @param m: a method
+     * @return true iff the method is annotated by an OOPUnit method annotation
+     */
+    private static boolean isOOPUnitMethod(ExecutableElement m) {
+        for(Class<? extends Annotation> annotation : OOPUnitAnnotations) {
+            if(m.getAnnotation(annotation) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a method can be invoked directly by the generated plan, which resides in the
+     * test class's package
+     * @param m: the method
+     * @param classAccessible: whether the test class is accessible from the generated plan
+     * @param packageName: the generated plan's package
+     * @return true iff the method is an accessible instance method with no parameters
+     */
+    private boolean isDirectlyInvokable(ExecutableElement m, boolean classAccessible,
+                                        String packageName) {
+        Set<Modifier> modifiers = m.getModifiers();
+        if(!classAccessible || modifiers.contains(Modifier.PRIVATE) ||
+                modifiers.contains(Modifier.STATIC) || !m.getParameters().isEmpty()) {
+            return false;
+        }
+        return modifiers.contains(Modifier.PUBLIC) || processingEnv.getElementUtils()
+                .getPackageOf(m).getQualifiedName().contentEquals(packageName);
+    }
+
+    /**
+     * @param type: a class
+     * @return true iff the class (and every class that encloses it) isn't private, i.e. it can be
+     * referred to from its own package
+     */
+    private static boolean isAccessibleType(TypeElement type) {
+        for(Element current = type; current instanceof TypeElement;
+            current = current.getEnclosingElement()) {
+            if(current.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if(current != type && current.getKind() != ElementKind.CLASS &&
+                    current.getKind() != ElementKind.INTERFACE) {
+                //Local and anonymous classes can't be referred to by name
+                return false;
+            }
+        }
+        return type.getNestingKind() == NestingKind.TOP_LEVEL ||
+                type.getNestingKind() == NestingKind.MEMBER;
+    }
+
+    /**
+     * @param type: a class
+     * @return the class's superclass, or null if the class is at the top of the hierarchy tree
+     * (i.e. its superclass is Object, whose methods aren't part of the OOPUnit framework)
+     */
+    private static TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if(superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement superElement = (TypeElement) ((DeclaredType) superclass).asElement();
+        return superElement.getQualifiedName().contentEquals(Object.class.getName()) ?
+                null : superElement;
+    }
+
+    /**
+     * @param value: a string
+     * @return a Java string literal of the given value
+     */
+    private String literal(CharSequence value) {
+        return processingEnv.getElementUtils().getConstantExpression(value.toString());
+    }
+
+    /**
+     * @param values: an array of strings
+     * @return a Java array creation expression of the given values
+     */
+    private String literal(String[] values) {
+        StringJoiner joiner = new StringJoiner(", ", "new String[] {", "}");
+        for(String value : values) {
+            joiner.add(literal(value));
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Simple record type of a resolved method, and the depth of its declaring class in the test
+     * class's hierarchy
+     */
+    private static final class ResolvedMethod {
+        private final ExecutableElement method;
+        private final int depth;
+
+        private ResolvedMethod(ExecutableElement method, int depth) {
+            this.method = method;
+            this.depth = depth;
+        }
+    }
+}
@@ -2,12 +2,15 @@ package OOP.Solution;
 
 import OOP.Provided.OOPResult;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class maps each test method's name to its corresponding result.
  * Provides functionally to count the amount of each desired result type.
+ * The summary of a runClass call is gathered as the run's results happen, by listening to them:
+ * its recorder is the first listener that's notified of every result (see
+ * {@link OOPTestListener}).
  * @see OOPResult
  */
 public class OOPTestSummary {
@@ -15,6 +18,28 @@ public class OOPTestSummary {
     //Attribute: a dictionary which maps the test method's result to each method's name
     private Map<String, OOPResult> testMap;
 
+    //Attribute: the wall-clock duration of the run that produced this summary, in nanoseconds
+    private long durationNanos;
+
+    //Attribute: whether this summary was replayed from a result cache, instead of being run
+    private boolean replayed;
+
+    //Attribute: the counters of what the run's snapshots copied
+    private final OOPSnapshotStats snapshotStats = new OOPSnapshotStats();
+
+    //Attribute: the listener that gathers the run's results into this summary
+    private final OOPTestListener recorder = new OOPTestListener() {
+        @Override
+        public void testFinished(OOPTestEvent event) {
+            testMap.put(event.getTestName(), event.getResult());
+        }
+
+        @Override
+        public void classFinished(Class<?> testClass, long durationNanos) {
+            OOPTestSummary.this.durationNanos = durationNanos;
+        }
+    };
+
     /**
      * Helper function which is used in order to count the amount of a given result type
      * @param result: the desired result to be counted
@@ -31,8 +56,29 @@ public class OOPTestSummary {
         return count;
     }
 
-    OOPTestSummary (Map<String, OOPResult> testMap) {
+    /**
+     * Creates an empty summary, which gathers the results of a run that notifies it
+     */
+    OOPTestSummary () {
+        //Tests might finish concurrently
+        this(new ConcurrentHashMap<>(), 0);
+    }
+
+    OOPTestSummary (Map<String, OOPResult> testMap, long durationNanos) {
+        this(testMap, durationNanos, false);
+    }
+
+    OOPTestSummary (Map<String, OOPResult> testMap, long durationNanos, boolean replayed) {
         this.testMap = testMap;
+        this.durationNanos = durationNanos;
+        this.replayed = replayed;
+    }
+
+    /**
+     * @return the listener that gathers the results of the run that notifies it into this summary
+     */
+    OOPTestListener getRecorder() {
+        return recorder;
     }
 
     /**
@@ -63,4 +109,60 @@ public class OOPTestSummary {
     public int getNumErrors() {
         return countResults(OOPResult.OOPTestResult.ERROR);
     }
+
+    /**
+     * @return the amount of tests that terminated with TIMEOUT
+     */
+    public int getNumTimeouts() {
+        return countResults(OOPResult.OOPTestResult.TIMEOUT);
+    }
+
+    /**
+     * @return the amount of tests that were not run, since the run was stopped (NOT_RUN)
+     */
+    public int getNumNotRun() {
+        return countResults(OOPResult.OOPTestResult.NOT_RUN);
+    }
+
+    /**
+     * @param testName: a test method's name
+     * @return the timings of the test's repeated iterations, or null if the test wasn't repeated
+     * or did not complete all of its iterations
+     * @see OOPTest#repeat()
+     */
+    public OOPTimingStats getTimings(String testName) {
+        OOPResult result = testMap.get(testName);
+        return (result instanceof OOPResultImpl) ? ((OOPResultImpl) result).getTimings() : null;
+    }
+
+    /**
+     * @return the dictionary which maps each test method's name to its result
+     */
+    Map<String, OOPResult> getResults() {
+        return testMap;
+    }
+
+    /**
+     * @return the wall-clock duration of the run, in nanoseconds. for a replayed summary, this is
+     * the duration of the original run
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return the counters of what the snapshots of the test class instance copied during the
+     * run. they're empty for a summary that was replayed, or that was received from another JVM
+     */
+    public OOPSnapshotStats getSnapshotStats() {
+        return snapshotStats;
+    }
+
+    /**
+     * @return true iff the tests were not run, and this summary was replayed from a result cache
+     * @see OOPRunOptions#resultCache(java.nio.file.Path)
+     */
+    public boolean isReplayed() {
+        return replayed;
+    }
 }
@@ -0,0 +1,99 @@
+package OOP.Solution;
+
+import java.util.Arrays;
+
+/**
+ * The timing statistics of a repeated test: the durations of its measured iterations (warmup
+ * iterations excluded), in nanoseconds. Percentiles are computed by the nearest-rank method.
+ * @see OOPTest#repeat()
+ * @see OOPTestSummary#getTimings(String)
+ */
+public class OOPTimingStats {
+
+    //Attribute: the amount of measured iterations
+    private int iterations;
+
+    //Attribute: the statistics of the iterations' durations, in nanoseconds
+    private long min;
+    private long mean;
+    private long p50;
+    private long p99;
+
+    private OOPTimingStats() {
+    }
+
+    /**
+     * @param durations: the durations of the measured iterations in nanoseconds. the array is
+     *                 sorted in place
+     * @return the statistics of the given durations
+     */
+    static OOPTimingStats of(long[] durations) {
+        assert(durations.length > 0);
+        Arrays.sort(durations);
+        OOPTimingStats res = new OOPTimingStats();
+        res.iterations = durations.length;
+        res.min = durations[0];
+        long sum = 0;
+        for(long duration : durations) {
+            sum += duration;
+        }
+        res.mean = sum / durations.length;
+        res.p50 = percentile(durations, 50);
+        res.p99 = percentile(durations, 99);
+        return res;
+    }
+
+    /**
+     * @param iterations: the amount of measured iterations
+     * @param min: the shortest duration, in nanoseconds
+     * @param mean: the mean duration, in nanoseconds
+     * @param p50: the median duration, in nanoseconds
+     * @param p99: the 99th percentile of the durations, in nanoseconds
+     * @return statistics which were already computed (e.g. by a worker JVM)
+     */
+    static OOPTimingStats of(int iterations, long min, long mean, long p50, long p99) {
+        OOPTimingStats res = new OOPTimingStats();
+        res.iterations = iterations;
+        res.min = min;
+        res.mean = mean;
+        res.p50 = p50;
+        res.p99 = p99;
+        return res;
+    }
+
+    /**
+     * @param sorted: sorted durations
+     * @param percent: the desired percentile, between 1 and 100
+     * @return the smallest duration that's greater or equal to the given percent of the durations
+     */
+    private static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getMinNanos() {
+        return min;
+    }
+
+    public long getMeanNanos() {
+        return mean;
+    }
+
+    public long getP50Nanos() {
+        return p50;
+    }
+
+    public long getP99Nanos() {
+        return p99;
+    }
+
+    @Override
+    public String toString() {
+        return iterations + " iterations: min=" + min + "ns, mean=" + mean + "ns, p50=" + p50 +
+                "ns, p99=" + p99 + "ns";
+    }
+}
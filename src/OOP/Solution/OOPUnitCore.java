@@ -8,7 +8,7 @@ import OOP.Provided.OOPResult;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
 
 
 /**
@@ -27,6 +27,8 @@ import java.util.stream.Collectors;
  *      @see OOP.Provided.OOPResult.OOPTestResult for possible result types
  * @see OOPTestSummary: dictionary that hold the results of all the tests.
  *      maps each of the test class's test methods with its corresponding OOPResult
+ * @see OOPTestListener: is notified of the results of the tests as they happen. the summary is
+ *      gathered by such a listener
  *
  * ************************************************************************************************
  *
@@ -40,51 +42,74 @@ import java.util.stream.Collectors;
  *  runs all the OOPUnit annotated setup methods, before methods, test methods and after methods
  * {@link #runClass(Class, String)}
  *  runs the tagged OOPUnit annotated test methods that match with the given tag
+ * {@link #runClass(Class, String, OOPRunOptions)}
+ *  runs the tagged test methods according to the given run options
+ *  (e.g. concurrently, for UNORDERED test classes)
+ * {@link #runClasses(Collection, String, OOPRunOptions)}
+ *  runs several test classes concurrently, and gathers their summaries
+ * {@link #runClassAsync(Class, String, OOPRunOptions, Executor)}
+ *  runs the tagged test methods on the given executor, and returns the run's future summary,
+ *  through which the run's progress is exposed and the run can be cancelled
  *
  *  *************************** Helper functions to support this class: ***************************
  *
  *  Information gathering functions:
  *
- *  {@link #getOOPUnitAnnotation(Method)}: Gets the appropriate OOPUnit annotatinon of a mehod,
- *  or null if it isn't annotated by any
+ *  {@link OOPTestPlan#of(Class)}: Gets the test class's cached plan: its OOPUnit annotated
+ *  methods in the order in which they should run, and its OOPExceptionRule annotated field
  *  {@link #getOOPExpectedException(Field, Object)}: Gets the field's value,
  *  of type OOPExpectedException
- *  {@link #getOOPExceptionField(Object)}: Gets the class's OOPExceptionRule annotated field, which
- *  is assumed to be an OOPExpectedException. If there is no rule, null is returned
- *  {@link #classOOPMethods(Class)}: Gets all of the class's OOP annotated methods
  *  {@link #initCopy(Class)}: Creates a copy of the given class, assuming the class has a
  *  0 arguments constructor
- *  {@link #containsTest(Method, Class, Method)}: Checks if a given method's OOP annotation's value
- *  (assumed to be annotated by either OOPBefore or OOPAfter) includes a given test method
+ *  {@link #shardTests(OOPTestPlan, List, OOPRunOptions)}: Selects the tests of the run's shard
  *
  *  ***********************************************************************************************
  *
  *  Methods invoking functions:
  *
- *  {@link #callSetupMethods(Map, Object)}: Invokes the OOPSetup methods
- *  {@link #callTestMethods(Map, Field, Object, Map)}: Invokes all OOPTest methods
- *  {@link #callBeforeAfter(Map, Object, Class, Method)}: Invokes a given OOPTest method's
- *  corresponding OOPBefore or OOPAfter methods:
+ *  {@link #callSetupMethods(OOPTestPlan, Object, OOPFailureBudget)}: Invokes the OOPSetup methods
+ *  {@link #callTestMethods(OOPTestPlan, List, Object, OOPRunContext)}: Invokes the given OOPTest
+ *  methods
+ *  {@link #callTestMethodsConcurrently(OOPTestPlan, List, Object, OOPRunContext, ExecutorService,
+ *  int)}: Invokes the given OOPTest methods concurrently, each on its own copy of the test class
+ *  instance
+ *  {@link #callTestMethodsInWaves(OOPTestPlan, List, Object, OOPRunContext, ExecutorService)}:
+ *  Invokes the given OOPTest methods of an ORDERED class in waves of tests that share the same
+ *  order
+ *  {@link #callBudgetedTestMethod(OOPTestPlan, OOPMethodInvoker, Object, OOPRunContext)}:
+ *  Invokes a single OOPTest method, unless the run was stopped by its failure budget
+ *  {@link #callTestMethod(OOPTestPlan, OOPMethodInvoker, Object, OOPTestEvent, OOPRunContext)}:
+ *  Invokes a single OOPTest method, along with its OOPBefore and OOPAfter methods
+ *  {@link #invokeRepeatedTest(OOPTestPlan, OOPMethodInvoker, Object, Field, OOPRunContext)}:
+ *  Invokes a test
+ *  method as many times as it should be repeated, and times the repeated invocations
+ *  {@link #invokeTest(OOPTestPlan, OOPMethodInvoker, Object, OOPRunContext)}: Invokes a test
+ *  method, enforcing its timeout (see {@link OOPWatchdog})
+ *  {@link #callBeforeAfter(OOPTestPlan, Object, Class, OOPMethodInvoker, OOPRunContext)}: Invokes
+ *  a given OOPTest method's corresponding OOPBefore or OOPAfter methods:
  *
  *  ***********************************************************************************************
  *
  *  Backup related functions:
  *
- *  {@link #backup(Object)}: Backs up a given object's field in a separate back-up object
- *  {@link #fieldBackup(Object)}: Backs up a single object's field
- *  {@link #copyObjectFields(Object, Object)}: Copies a source object's fields into a target object
+ *  {@link #snapshotStrategy(OOPRunOptions)}: Selects the strategy that takes the run's snapshots
+ *  {@link #shallowSnapshots()}: Creates the strategy of a run's SHALLOW backups
+ *  {@link #backup(Object, OOPBackupPool, OOPSnapshotStats)}: Backs up a given object's field in a
+ *  separate back-up object (the SHALLOW snapshot mode)
+ *  {@link #fieldBackup(Object, OOPSnapshotStats)}: Backs up a single object's field
+ *  {@link #copyObjectFields(Object, Object, OOPSnapshotStats)}: Copies a source object's fields
+ *  into a target object
+ *  {@link #workerCopy(Object, OOPSnapshotStats)}: Copies an object for a worker
  *
  *  ***********************************************************************************************
  *
  *  Misc functions:
  *
- *  {@link #reverseArray(Object[])}: Reverses an array
  *  {@link #resetExpectedException(Field, Object)}: Resets the test class's rule to none
- *  {@link #sortOOPTests(List, Class, String)}: Filters & sorts the test methods accordingly
  *
  *  **************************** Helper classes to support this class: ****************************
  *
- *  {@link MethodInfo}: Wraps a method's relevant information, helps in comparing methods.
+ *  {@link OOPTestPlan}: The immutable, cached description of how a test class should be run.
  *  Please visit this helper class's documentation for more information
  *
  *  ***********************************************************************************************
@@ -92,9 +117,6 @@ import java.util.stream.Collectors;
  */
 public class OOPUnitCore {
 
-    //Attribute: the default tag for tests that are not tagged
-    private final static String defaultTag = "";
-
     public static void assertEquals(Object expected, Object actual) throws OOPAssertionFailure {
         if((expected == null && actual != null) ||
                 ((expected != null) && !(expected.equals(actual)))) {
@@ -107,33 +129,156 @@ public class OOPUnitCore {
     }
 
     public static OOPTestSummary runClass(Class<?> testClass) throws IllegalArgumentException {
-        return runClass(testClass, defaultTag);
+        return runClass(testClass, OOPTestPlan.defaultTag);
     }
 
     public static OOPTestSummary runClass(Class<?> testClass, String tag)
             throws IllegalArgumentException {
+        return runClass(testClass, tag, OOPRunOptions.defaults());
+    }
+
+    public static OOPTestSummary runClass(Class<?> testClass, String tag, OOPRunOptions options)
+            throws IllegalArgumentException {
+        return runClass(testClass, tag, options, null);
+    }
+
+    public static OOPRunFuture runClassAsync(Class<?> testClass, String tag, Executor executor)
+            throws IllegalArgumentException {
+        return runClassAsync(testClass, tag, OOPRunOptions.defaults(), executor);
+    }
+
+    /**
+     * Runs the tagged test methods of a test class on the given executor, without blocking the
+     * caller. The run is the same as {@link #runClass(Class, String, OOPRunOptions)}'s, and an
+     * invalid test class completes the future exceptionally, with an IllegalArgumentException
+     * @param testClass: the test class
+     * @param tag: the tag of the tests that should run
+     * @param options: the run options
+     * @param executor: the executor on which the run's setup and sequential tests run
+     * @return the run's future summary, which exposes the run's progress, and stops the run once
+     * it's cancelled
+     * @throws IllegalArgumentException: in case the given executor is null
+     */
+    public static OOPRunFuture runClassAsync(Class<?> testClass, String tag,
+                                             OOPRunOptions options, Executor executor)
+            throws IllegalArgumentException {
+        if(executor == null) {
+            throw new IllegalArgumentException();
+        }
+        OOPRunFuture future = new OOPRunFuture();
+        executor.execute(() -> {
+            if(future.isDone()) {
+                //The run was cancelled before it started
+                return;
+            }
+            try {
+                future.complete(runClass(testClass, tag, options, future));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
 
+    /**
+     * Runs the tagged test methods of a test class
+     * @param testClass: the test class
+     * @param tag: the tag of the tests that should run
+     * @param options: the run options
+     * @param future: the future summary of an asynchronous run, which is notified of the run's
+     *              progress and may stop it, or null for a synchronous run
+     * @return the run's summary
+     * @throws IllegalArgumentException: in case the given class is not an OOPUnit test class
+     */
+    private static OOPTestSummary runClass(Class<?> testClass, String tag, OOPRunOptions options,
+                                           OOPRunFuture future)
+            throws IllegalArgumentException {
+
+        if(tag == null || options == null) {
+            throw new IllegalArgumentException();
+        }
         if(testClass == null || testClass.getAnnotationsByType(OOPTestClass.class).length == 0) {
             //Given class is either not a class, or not an OOPUnit test class
             throw new IllegalArgumentException();
         }
 
-        //The result map of all the tests
-        Map<String,OOPResult> OOPTestsResults = new HashMap<>();
+        //The listeners that are notified of the run's results, other than its summary
+        List<OOPTestListener> listeners = new ArrayList<>(options.getListeners());
+        if(future != null) {
+            listeners.add(future);
+        }
+
+        //A class that did not change since it was last run is replayed from the result cache
+        OOPResultCache cache = null;
+        String cacheKey = null;
+        if(options.getResultCache() != null) {
+            cache = OOPResultCache.of(options.getResultCache());
+            cacheKey = OOPResultCache.key(testClass, tag, options);
+            OOPTestSummary cached = (cacheKey == null) ? null : cache.lookup(cacheKey);
+            if(cached != null) {
+                if(future != null) {
+                    future.started(null);
+                    future.setTotalTests(cached.getResults().size());
+                }
+                OOPRunContext replay = new OOPRunContext(new OOPFailureBudget(0), testClass,
+                        null, Collections.emptySet(), listeners, shallowSnapshots(),
+                        new OOPSnapshotStats());
+                cached.getResults().forEach(replay::testReplayed);
+                replay.classFinished(cached.getDurationNanos());
+                return cached;
+            }
+        }
+
+        long startTime = System.nanoTime();
 
-        //The methods map, which maps a list of OOP annotated methods to each annotation type
-        Map<Class <? extends Annotation>, List<Method>> annotatedMethods =
-                getOOPMethods(testClass, tag);
+        //The summary of all the tests, which is the first listener that's notified of the results
+        OOPTestSummary summary = new OOPTestSummary();
+        listeners.add(0, summary.getRecorder());
+
+        //Stops the run once enough tests failed (never, by default), or once it's cancelled
+        OOPFailureBudget budget = new OOPFailureBudget(options.getFailureBudget());
+        if(future != null) {
+            future.started(budget);
+        }
+
+        //The class's plan, which lists the OOP annotated methods in the order they should run
+        OOPTestPlan plan = OOPTestPlan.of(testClass);
+
+        //The classes that the class's construction and setup use are used by every test
+        OOPImpactMap impactMap = (options.getImpactMap() == null) ? null :
+                OOPImpactMap.of(options.getImpactMap());
+        boolean recording = impactMap != null && OOPImpactRecorder.isRecording();
+        if(recording) {
+            OOPImpactRecorder.begin();
+        }
 
         //A copy of the given class object: initialized with the given class's 0-args constructor
         Object copyObject = initCopy(testClass);
-
-        //The class's expected exception field annotated by OOPExceptionRule (null if doesn't exist)
         assert copyObject != null;
-        Field expectedException = getOOPExceptionField(copyObject);
 
         //Run all of the OOPSetup annotated methods, excluding overridden methods
-        callSetupMethods(annotatedMethods, copyObject);
+        callSetupMethods(plan, copyObject, budget);
+
+        OOPRunContext run = new OOPRunContext(budget, testClass, impactMap,
+                recording ? OOPImpactRecorder.end() : Collections.emptySet(), listeners,
+                snapshotStrategy(options), summary.getSnapshotStats());
+        List<OOPMethodInvoker> tests = shardTests(plan, plan.getTests(tag), options);
+        if(future != null) {
+            future.setTotalTests(tests.size());
+        }
+        List<OOPMethodInvoker> unaffectedTests = Collections.emptyList();
+        if(impactMap != null && options.getChangedClasses() != null &&
+                OOPImpactRecorder.isRecording()) {
+            //Only the tests that are affected by the changed classes run. Without recording,
+            //the map can't be trusted to be complete, so every test is affected
+            List<OOPMethodInvoker> affectedTests = new ArrayList<>();
+            unaffectedTests = new ArrayList<>();
+            for(OOPMethodInvoker test : tests) {
+                (impactMap.isAffected(testClass, test.getName(), options.getChangedClasses()) ?
+                        affectedTests : unaffectedTests).add(test);
+            }
+            tests = affectedTests;
+        }
 
         /*
          * Run the appropriate test methods in the desired order, and gather the results.
@@ -141,14 +286,77 @@ public class OOPUnitCore {
          */
 
         try {
-            callTestMethods(annotatedMethods, expectedException, copyObject,
-                    OOPTestsResults);
+            if(options.isVirtualThreads() && !plan.isOrdered()) {
+                ExecutorService executor = OOPExecutors.newVirtualThreadExecutor();
+                try {
+                    callTestMethodsConcurrently(plan, tests, copyObject,
+                            run, executor, options.getMaxConcurrency());
+                } finally {
+                    executor.shutdownNow();
+                }
+            } else if(options.isParallel() && !plan.isOrdered()) {
+                ExecutorService executor = new ForkJoinPool(options.getParallelism());
+                try {
+                    callTestMethodsConcurrently(plan, tests, copyObject,
+                            run, executor, options.getParallelism());
+                } finally {
+                    executor.shutdownNow();
+                }
+            } else if(options.isOrderedWaves() && plan.isOrdered()) {
+                ExecutorService executor = new ForkJoinPool(options.getParallelism());
+                try {
+                    callTestMethodsInWaves(plan, tests, copyObject, run, executor);
+                } finally {
+                    executor.shutdownNow();
+                }
+            } else {
+                callTestMethods(plan, tests, copyObject, run);
+            }
         } catch(Exception e) {
             //We shouldn't get here
             error();
         }
+        //Tests that didn't run because the run was stopped are marked as such
+        budget.markNotRun(tests, run);
+        OOPResult unaffected = new OOPResultImpl(OOPResult.OOPTestResult.NOT_RUN,
+                "skipped by impact analysis");
+        for(OOPMethodInvoker test : unaffectedTests) {
+            run.testNotRun(test, unaffected);
+        }
+        //A cancelled run's results are not the class's results, so they're neither cached nor
+        //saved in the impact map
+        boolean cancelled = budget.isCancelled();
+        if(impactMap != null && !cancelled) {
+            impactMap.save();
+        }
+
+        run.classFinished(System.nanoTime() - startTime);
+        if(cacheKey != null && !cancelled) {
+            cache.store(cacheKey, summary);
+        }
+        return summary;
+    }
+
+    public static OOPBatchSummary runClasses(Collection<Class<?>> testClasses,
+                                             OOPRunOptions options)
+            throws IllegalArgumentException {
+        return runClasses(testClasses, OOPTestPlan.defaultTag, options);
+    }
 
-        return new OOPTestSummary(OOPTestsResults);
+    public static OOPBatchSummary runClasses(Collection<Class<?>> testClasses, String tag,
+                                             OOPRunOptions options)
+            throws IllegalArgumentException {
+        if(testClasses == null || tag == null || options == null) {
+            throw new IllegalArgumentException();
+        }
+        for(Class<?> testClass : testClasses) {
+            if(testClass == null ||
+                    testClass.getAnnotationsByType(OOPTestClass.class).length == 0) {
+                //One of the given classes is not an OOPUnit test class: nothing is run
+                throw new IllegalArgumentException();
+            }
+        }
+        return OOPBatchRunner.run(testClasses, tag, options);
     }
 
     private static void error() throws IllegalArgumentException {
@@ -156,141 +364,491 @@ public class OOPUnitCore {
     }
 
     /**
-     * Main framework method: runs all the tests in the test class, and gathers the results
-     * @param annotatedMethods: dictionary that consists of a list of OOPUnit annotated methods,
-     *                        in the order in which they should run, for each of the annotation types.
-     * @param expectedException: the class's expected exception field
+     * @param options: the run's options, which select its snapshot mode
+     * @return the strategy that takes the run's snapshots
+     */
+    private static OOPSnapshotStrategy snapshotStrategy(OOPRunOptions options) {
+        switch(options.getSnapshotMode()) {
+            case SHALLOW:
+                return shallowSnapshots();
+            case DEEP:
+                return OOPDeepCopier.snapshots;
+            case JOURNAL:
+                return OOPFieldJournal.snapshots;
+            case OFF_HEAP:
+                //The memory budget is the run's own
+                return new OOPOffHeapSnapshots(options.getSnapshotMemoryBudget(),
+                        shallowSnapshots());
+            default:
+                //We shouldn't get here
+                error();
+                return null;
+        }
+    }
+
+    /**
+     * @return a new strategy of the SHALLOW snapshot mode, for a single run: a snapshot is a backup
+     * of the instance, whose holder is reused by the run's later backups once it's released
+     */
+    private static OOPSnapshotStrategy shallowSnapshots() {
+        OOPBackupPool pool = new OOPBackupPool();
+        return new OOPSnapshotStrategy() {
+            @Override
+            public Object snapshot(Object instance, OOPSnapshotStats stats) {
+                return backup(instance, pool, stats);
+            }
+
+            @Override
+            public void restore(Object instance, Object snapshot, OOPSnapshotStats stats) {
+                copyObjectFields(instance, snapshot, stats);
+                stats.recordRestored(OOPFieldPlan.of(instance.getClass()).getFieldCount());
+            }
+
+            @Override
+            public void release(Object snapshot) {
+                pool.release(snapshot);
+            }
+        };
+    }
+
+    /**
+     * Selects the tests that belong to the run's shard. The tests of an UNORDERED class are
+     * assigned to shards one by one, while an ORDERED class is assigned to a single shard
+     * @param plan: the test class's plan
+     * @param tests: the OOPTest methods that match the run's tag
+     * @param options: the run options, which specify the shard
+     * @return the OOPTest methods of the run's shard
+     */
+    private static List<OOPMethodInvoker> shardTests(OOPTestPlan plan,
+                                                     List<OOPMethodInvoker> tests,
+                                                     OOPRunOptions options) {
+        if(options.getShardCount() == 1) {
+            return tests;
+        }
+        if(plan.isOrdered()) {
+            return (shardOf(plan.getTestClass().getName(), options.getShardCount()) ==
+                    options.getShardIndex()) ? tests : Collections.emptyList();
+        }
+        List<OOPMethodInvoker> shard = new ArrayList<>();
+        for(OOPMethodInvoker test : tests) {
+            if(shardOf(test.getName(), options.getShardCount()) == options.getShardIndex()) {
+                shard.add(test);
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * @param key: the name of a test or of an ORDERED test class
+     * @param shardCount: the amount of shards
+     * @return the shard of the given key, which is the same in every JVM (String's hash code is
+     * specified by the language), mixed so that similar names spread between the shards
+     */
+    private static int shardOf(String key, int shardCount) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    /**
+     * Main framework method: runs the given tests of the test class, and gathers the results
+     * @param plan: the test class's plan, which lists the OOPUnit annotated methods in the order
+     *            in which they should run, along with the class's expected exception field
+     * @param tests: the OOPTest methods to be run, in the order in which they should run
      * @param copyObject: class on which the tests will be invoked
-     * @param OOPTestsResults: method_name -> OOPResult dictionary that marks the results of all
-     *                       the test methods.
+     * @param run: the run's context, whose listeners are notified of the tests' results. once its
+     *           failure budget is exhausted, no more tests are run
      */
-    private static void callTestMethods(Map<Class<? extends Annotation>, List<Method>>
-                                      annotatedMethods, Field expectedException,
-                                      Object copyObject, Map<String,OOPResult> OOPTestsResults) {
-        for(Method test : annotatedMethods.get(OOPTest.class)) {
-            //Run OOPBefore methods:
-            Object backupObject = null;
-            try {
-                backupObject = backup(copyObject);
-                callBeforeAfter(annotatedMethods, copyObject, OOPBefore.class, test);
-            } catch (Throwable e) {
-               /*
-                * The test has failed: couldn't run OOPBefore methods.
-                * Mark the test's failure, restore the object, and continue to the next test
-                */
-                OOPTestsResults.put(test.getName(), new
-                        OOPResultImpl(OOPResult.OOPTestResult.ERROR, e.getMessage()));
-                copyObjectFields(copyObject, backupObject);
-                continue;
+    private static void callTestMethods(OOPTestPlan plan, List<OOPMethodInvoker> tests,
+                                        Object copyObject, OOPRunContext run) {
+        for(OOPMethodInvoker test : tests) {
+            if(!callBudgetedTestMethod(plan, test, copyObject, run)) {
+                //The run was stopped: the rest of the tests are not run
+                return;
             }
-            //Run Tests:
-            //We reset the expected exception before each test
-            resetExpectedException(expectedException, copyObject);
-            OOPExpectedException rule;
-            try {
-                test.invoke(copyObject); //Might also change the expected exception
-                /*
-                 * The test finished without throwing an exception.
-                 * We will mark this as a success, as long as no exception was expected.
-                 * In the case of an expected exception (not thrown): the result will be an Error.
-                 * The result will be overridden in case of failure in OOPAfter methods
-                 */
-                rule = getOOPExpectedException(expectedException, copyObject);
-                if(rule!= null && rule.getExpectedException() != null) {
-                    OOPTestsResults.put(test.getName(), new OOPResultImpl(
-                            OOPResult.OOPTestResult.ERROR, rule.getExpectedException().getName()));
+        }
+    }
+
+    /**
+     * Runs the given tests of an UNORDERED test class concurrently, and gathers the results.
+     * Each test runs on its own copy of the test class instance, which is backed-up from the
+     * instance on which the OOPSetup methods were invoked
+     * @param plan: the test class's plan
+     * @param tests: the OOPTest methods to be run
+     * @param setupObject: class on which the OOPSetup methods were invoked
+     * @param run: the run's context, whose listeners are notified of the tests' results. once its
+     *           failure budget is exhausted, no more tests are started, and the running tests are
+     *           cancelled
+     * @param executor: the executor on which the tests run
+     * @param maxConcurrency: the maximal amount of tests that run (and of copies that exist) at
+     *                      the same time
+     */
+    private static void callTestMethodsConcurrently(OOPTestPlan plan, List<OOPMethodInvoker> tests,
+                                                    Object setupObject,
+                                                    OOPRunContext run,
+                                                    ExecutorService executor,
+                                                    int maxConcurrency) {
+        assert(!plan.isOrdered());
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<?>> futures = new ArrayList<>(tests.size());
+        for(OOPMethodInvoker test : tests) {
+            permits.acquireUninterruptibly();
+            if(run.getBudget().isExhausted()) {
+                //The run was stopped: the rest of the tests are not started
+                permits.release();
+                break;
+            }
+            //The copies are backed-up here, so the workers never read the shared instance
+            Object workerObject = workerCopy(setupObject, run.getSnapshotStats());
+            futures.add(executor.submit(() -> {
+                try {
+                    callBudgetedTestMethod(plan, test, workerObject, run);
+                } finally {
+                    permits.release();
                 }
-                else {
-                    OOPTestsResults.put(test.getName(), new OOPResultImpl(
-                            OOPResult.OOPTestResult.SUCCESS, null));
+            }));
+        }
+        awaitTests(futures, run);
+    }
+
+    /**
+     * Runs the given tests of an ORDERED test class in waves: the consecutive tests that share the
+     * same order form a wave, whose tests run concurrently, each on its own copy of the test class
+     * instance. Once a wave ends, the fields that its tests changed are merged back into the
+     * instance, and the next wave starts
+     * @see OOPRunOptions#orderedWaves(boolean) for the merge rule
+     * @param plan: the test class's plan
+     * @param tests: the OOPTest methods to be run, in the order in which they should run
+     * @param copyObject: class on which the tests will be invoked
+     * @param run: the run's context, whose listeners are notified of the tests' results. once its
+     *           failure budget is exhausted, no more waves are run
+     * @param executor: the executor on which the tests of a wave run
+     */
+    private static void callTestMethodsInWaves(OOPTestPlan plan, List<OOPMethodInvoker> tests,
+                                               Object copyObject,
+                                               OOPRunContext run,
+                                               ExecutorService executor) {
+        assert(plan.isOrdered());
+        OOPFieldPlan fields = OOPFieldPlan.of(copyObject.getClass());
+        int start = 0;
+        while(start < tests.size() && !run.getBudget().isExhausted()) {
+            int end = start + 1;
+            while(end < tests.size() &&
+                    plan.getOrder(tests.get(end)) == plan.getOrder(tests.get(start))) {
+                end++;
+            }
+            if(end - start == 1) {
+                //A wave of a single test runs on the instance itself
+                callBudgetedTestMethod(plan, tests.get(start), copyObject, run);
+            } else {
+                callWave(plan, tests.subList(start, end), copyObject, run, executor, fields);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Runs a single wave of tests concurrently, and merges the changes of its tests into the
+     * instance (unless the run was stopped in the meantime)
+     * @param plan: the test class's plan
+     * @param wave: the wave's tests, in the class's declaration order
+     * @param copyObject: class into which the wave's changes are merged
+     * @param run: the run's context
+     * @param executor: the executor on which the tests run
+     * @param fields: the field plan of the test class, which covers its hierarchy
+     */
+    private static void callWave(OOPTestPlan plan, List<OOPMethodInvoker> wave,
+                                 Object copyObject, OOPRunContext run, ExecutorService executor,
+                                 OOPFieldPlan fields) {
+        Object[] workerObjects = new Object[wave.size()];
+        Object[][] initialValues = new Object[wave.size()][];
+        List<Future<?>> futures = new ArrayList<>(wave.size());
+        for(int i = 0; i < wave.size(); i++) {
+            OOPMethodInvoker test = wave.get(i);
+            Object workerObject = workerCopy(copyObject, run.getSnapshotStats());
+            workerObjects[i] = workerObject;
+            initialValues[i] = fieldValues(workerObject, fields);
+            futures.add(executor.submit(() -> callBudgetedTestMethod(plan, test, workerObject,
+                    run)));
+        }
+        awaitTests(futures, run);
+        if(run.getBudget().isExhausted()) {
+            //The run was stopped: no wave follows, so there's nothing to merge into
+            return;
+        }
+        Object[] waveValues = fieldValues(copyObject, fields);
+        //The last test (in declaration order) that changed a field sets its value
+        for(int i = 0; i < wave.size(); i++) {
+            Object[] finalValues = fieldValues(workerObjects[i], fields);
+            for(int f = 0; f < fields.getFieldCount(); f++) {
+                if(isChanged(initialValues[i][f], finalValues[f], waveValues[f])) {
+                    fields.set(f, copyObject, finalValues[f]);
                 }
-            } catch(InvocationTargetException e) {
-                try {
-                    //Method threw an exception: we decipher which exception it was!
-                    //We throw the exception that's wrapped inside e forward, and catch it outside
-                    throw e.getCause();
-
-                } catch(OOPAssertionFailure exception) {
-                    OOPResult testResult = new OOPResultImpl(OOPResult.OOPTestResult.FAILURE,
-                            e.getMessage());
-                    OOPTestsResults.put(test.getName(), testResult);
-                } catch(Exception exception) {
-                    rule = getOOPExpectedException(expectedException, copyObject);
-                    if (rule == null || rule.getExpectedException() == null) {
-                        //Unexpected exception occurred: Error!
-
-                        OOPTestsResults.put(test.getName(), new OOPResultImpl(
-                                OOPResult.OOPTestResult.ERROR, exception.getClass().getName()));
-                    } else if (rule.assertExpected(exception)) {
-                        //Expected exception: Success!
-
-                        OOPTestsResults.put(test.getName(), new OOPResultImpl(
-                                OOPResult.OOPTestResult.SUCCESS, null));
-                    } else {
-                        //Expected exception mismatch!
-
-                        try {
-                            OOPTestsResults.put(test.getName(), new OOPResultImpl(
-                                    OOPResult.OOPTestResult.EXPECTED_EXCEPTION_MISMATCH, new
-                                    OOPExceptionMismatchError(rule.getExpectedException(),
-                                    exception.getClass()).getMessage()));
-                        } catch (Exception exe) {
-                            //We shouldn't get here
-                            error();
-                        }
-                        copyObjectFields(copyObject, backupObject);
-                    }
-                } catch (Throwable throwable) {
-                    //We shouldn't get here
-                    error();
+            }
+        }
+    }
+
+    /**
+     * Decides whether a test changed a field of its copy of the test class instance
+     * @param initialValue: the field's value in the copy, before the test ran
+     * @param finalValue: the field's value in the copy, after the test ran
+     * @param waveValue: the field's value in the instance, before the test's wave ran
+     * @return true iff the field was re-assigned, or its comparable value is no longer equal to
+     * the value before the wave
+     */
+    private static boolean isChanged(Object initialValue, Object finalValue, Object waveValue) {
+        if(initialValue != finalValue) {
+            //The field was re-assigned (or it's a primitive whose value was changed)
+            return !Objects.deepEquals(finalValue, waveValue);
+        }
+        if(finalValue == null) {
+            return false;
+        }
+        if(finalValue.getClass().isArray()) {
+            return !Objects.deepEquals(finalValue, waveValue);
+        }
+        try {
+            if(finalValue.getClass().getMethod("equals", Object.class).getDeclaringClass() !=
+                    Object.class) {
+                return !finalValue.equals(waveValue);
+            }
+        } catch (NoSuchMethodException e) {
+            //We shouldn't get here
+            error();
+        }
+        //An in-place change of an object that's compared by identity can't be detected
+        return false;
+    }
+
+    /**
+     * Waits for concurrent tests to end. Once the run was stopped, the tests that are still
+     * running are cancelled instead
+     * @param futures: the concurrent tests
+     * @param run: the run's context
+     */
+    private static void awaitTests(List<Future<?>> futures, OOPRunContext run) {
+        for(Future<?> future : futures) {
+            if(run.getBudget().isExhausted()) {
+                //The run was stopped: a test that's still running is cancelled, not awaited
+                future.cancel(true);
+                continue;
+            }
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                //A test that we couldn't run: pass its exception onwards
+                if(e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
                 }
-            } catch(Exception e) {
-                //We shouldn't get here
+                error();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 error();
             }
-            //Run OOPAfter methods:
-            try {
-                backupObject = backup(copyObject);
-                callBeforeAfter(annotatedMethods, copyObject, OOPAfter.class, test);
-            } catch (Throwable e) {
-                /*
-                 * The test has failed: couldn't run OOPAfter methods.
-                 * Mark the test's failure, restore the object, and continue to the next test
-                 */
-                OOPTestsResults.put(test.getName(), new OOPResultImpl(OOPResult.OOPTestResult.ERROR,
-                        e.getClass().getName())); //This will override the result
-                copyObjectFields(copyObject, backupObject);
-                //Continues to the next test
+        }
+    }
+
+    /**
+     * Runs a single test of the test class (see {@link #callTestMethod}), unless the run was
+     * stopped, and records its result against the run's failure budget
+     * @param plan: the test class's plan
+     * @param test: the OOPTest method to be run
+     * @param copyObject: class on which the test will be invoked
+     * @param run: the run's context, whose listeners are notified of the test's progress
+     * @return true iff the run was not stopped after this test
+     */
+    private static boolean callBudgetedTestMethod(OOPTestPlan plan, OOPMethodInvoker test,
+                                                  Object copyObject, OOPRunContext run) {
+        if(!run.getBudget().start()) {
+            return false;
+        }
+        //The result is kept in the test's event, since it's discarded if the run is stopped
+        OOPTestEvent event = run.testStarted(test);
+        run.startRecording();
+        try {
+            callTestMethod(plan, test, copyObject, event, run);
+        } finally {
+            run.finishRecording(test);
+            if(!run.getBudget().finish(event, run)) {
+                //Clear the interrupt that stopped this test, since worker threads are reused
+                Thread.interrupted();
             }
         }
+        return !run.getBudget().isExhausted();
     }
 
     /**
-     * Gets the OOPExceptionRule annotated OOPExpectedException field in the class
-     * @param copyObject: the test class in which we find the field
-     * @return the class's OOPExpectedException field if exists, or null otherwise
+     * Runs a single test of the test class, along with its OOPBefore & OOPAfter methods, and
+     * marks its result. The run's listeners are notified as each of the test's phases finishes
+     * @param plan: the test class's plan
+     * @param test: the OOPTest method to be run
+     * @param copyObject: class on which the test will be invoked
+     * @param event: the test's event, in which the result is marked
+     * @param run: the run's context
      */
-    private static Field getOOPExceptionField(Object copyObject) {
-        Class<?> current = copyObject.getClass();
-        Field result = null;
-        while(current.getSuperclass() != null) {
-            for(Field field : current.getDeclaredFields()) {
-                if(field.getAnnotation(OOPExceptionRule.class) != null) {
-                    field.setAccessible(true);
-                    try {
-                        //Assumption: OOPExceptionRule only annotates OOPExpectedException fields
-                        assert (!(field.get(copyObject).getClass().
-                                isAssignableFrom(OOPExpectedException.class)));
-                        result = field;
-                    } catch (Exception e) {
-                        //We shouldn't get here
-                        error();
-                    }
+    private static void callTestMethod(OOPTestPlan plan, OOPMethodInvoker test, Object copyObject,
+                                       OOPTestEvent event, OOPRunContext run) {
+        Field expectedException = plan.getExceptionRuleField();
+        //Run OOPBefore methods:
+        Object backupObject = null;
+        event.startPhase(OOPTestEvent.Phase.BEFORE);
+        try {
+            backupObject = run.snapshot(copyObject);
+            callBeforeAfter(plan, copyObject, OOPBefore.class, test, run);
+        } catch (Throwable e) {
+           /*
+            * The test has failed: couldn't run OOPBefore methods.
+            * Mark the test's failure, restore the object, and continue to the next test
+            */
+            event.setResult(new OOPResultImpl(OOPResult.OOPTestResult.ERROR, e.getMessage()));
+            run.restore(copyObject, backupObject);
+            run.release(backupObject);
+            run.phaseFinished(event);
+            return;
+        }
+        run.phaseFinished(event);
+        //Run Tests:
+        event.startPhase(OOPTestEvent.Phase.TEST);
+        //We reset the expected exception before each test
+        resetExpectedException(expectedException, copyObject);
+        OOPExpectedException rule;
+        try {
+            //Might also change the expected exception
+            OOPTimingStats timings = invokeRepeatedTest(plan, test, copyObject, expectedException,
+                    run);
+            /*
+             * The test finished without throwing an exception.
+             * We will mark this as a success, as long as no exception was expected.
+             * In the case of an expected exception (not thrown): the result will be an Error.
+             * The result will be overridden in case of failure in OOPAfter methods
+             */
+            rule = getOOPExpectedException(expectedException, copyObject);
+            if(rule!= null && rule.getExpectedException() != null) {
+                event.setResult(new OOPResultImpl(
+                        OOPResult.OOPTestResult.ERROR, rule.getExpectedException().getName()));
+            }
+            else {
+                event.setResult(new OOPResultImpl(
+                        OOPResult.OOPTestResult.SUCCESS, null, timings));
+            }
+        } catch(OOPAssertionFailure exception) {
+            OOPResult testResult = new OOPResultImpl(OOPResult.OOPTestResult.FAILURE,
+                    exception.getMessage());
+            event.setResult(testResult);
+        } catch(Exception exception) {
+            //Method threw an exception: we decipher which exception it was!
+            rule = getOOPExpectedException(expectedException, copyObject);
+            if (rule == null || rule.getExpectedException() == null) {
+                //Unexpected exception occurred: Error!
+
+                event.setResult(new OOPResultImpl(
+                        OOPResult.OOPTestResult.ERROR, exception.getClass().getName()));
+            } else if (rule.assertExpected(exception)) {
+                //Expected exception: Success!
+
+                event.setResult(new OOPResultImpl(
+                        OOPResult.OOPTestResult.SUCCESS, null));
+            } else {
+                //Expected exception mismatch!
+
+                event.setResult(new OOPResultImpl(
+                        OOPResult.OOPTestResult.EXPECTED_EXCEPTION_MISMATCH, new
+                        OOPExceptionMismatchError(rule.getExpectedException(),
+                        exception.getClass()).getMessage()));
+                run.restore(copyObject, backupObject);
+            }
+        } catch (OOPWatchdog.TimeoutError timeout) {
+            //The test did not finish in time: mark its timeout, and restore the object
+            event.setResult(new OOPResultImpl(
+                    OOPResult.OOPTestResult.TIMEOUT, timeout.getMessage()));
+            run.restore(copyObject, backupObject);
+        } catch (Throwable throwable) {
+            //We shouldn't get here
+            error();
+        }
+        run.phaseFinished(event);
+        //The backup of the OOPBefore methods is replaced by the backup of the OOPAfter methods
+        run.release(backupObject);
+        backupObject = null;
+        //Run OOPAfter methods:
+        event.startPhase(OOPTestEvent.Phase.AFTER);
+        try {
+            backupObject = run.snapshot(copyObject);
+            callBeforeAfter(plan, copyObject, OOPAfter.class, test, run);
+        } catch (Throwable e) {
+            /*
+             * The test has failed: couldn't run OOPAfter methods.
+             * Mark the test's failure, restore the object, and continue to the next test
+             */
+            event.setResult(new OOPResultImpl(OOPResult.OOPTestResult.ERROR,
+                    e.getClass().getName())); //This will override the result
+            run.restore(copyObject, backupObject);
+        }
+        run.release(backupObject);
+        run.phaseFinished(event);
+    }
+
+    /**
+     * Invokes a test method as many times as it should be repeated, and times the invocations of
+     * a repeated test. Between the invocations, the instance is restored to its state before the
+     * first one, and the expected exception is reset. The first exception that's thrown stops the
+     * repetitions, and is thrown onwards
+     * @param plan: the test class's plan
+     * @param test: the OOPTest method to be invoked
+     * @param copyObject: class on which the test will be invoked
+     * @param expectedException: the class's OOPExceptionRule annotated field, or null
+     * @param run: the run's context, which takes the snapshots between the invocations
+     * @return the timings of the measured invocations, or null if the test is not repeated
+     * @throws Throwable: the exception that was thrown by one of the invocations
+     */
+    private static OOPTimingStats invokeRepeatedTest(OOPTestPlan plan, OOPMethodInvoker test,
+                                                     Object copyObject, Field expectedException,
+                                                     OOPRunContext run)
+            throws Throwable {
+        if(!plan.isRepeated(test)) {
+            invokeTest(plan, test, copyObject, run);
+            return null;
+        }
+        int warmup = plan.getWarmup(test);
+        long[] durations = new long[plan.getRepeat(test)];
+        Object iterationBackup = run.snapshot(copyObject);
+        try {
+            for(int i = 0; i < warmup + durations.length; i++) {
+                if(i > 0) {
+                    run.restore(copyObject, iterationBackup);
+                    resetExpectedException(expectedException, copyObject);
+                }
+                long startTime = System.nanoTime();
+                invokeTest(plan, test, copyObject, run);
+                if(i >= warmup) {
+                    durations[i - warmup] = System.nanoTime() - startTime;
                 }
             }
-            current = current.getSuperclass();
+        } finally {
+            run.release(iterationBackup);
+        }
+        return OOPTimingStats.of(durations);
+    }
+
+    /**
+     * Invokes a test method. A test that has a timeout is invoked under the watchdog's supervision,
+     * on a worker's copy of the instance, which is merged into the instance if it finishes in time
+     * @param plan: the test class's plan
+     * @param test: the OOPTest method to be invoked
+     * @param copyObject: class on which the test will be invoked
+     * @param run: the run's context, whose stats count the copy of a timed test
+     * @throws OOPWatchdog.TimeoutError: in case the test did not finish within its timeout
+     * @throws Throwable: the exception that was thrown by the test method
+     */
+    private static void invokeTest(OOPTestPlan plan, OOPMethodInvoker test, Object copyObject,
+                                   OOPRunContext run)
+            throws Throwable {
+        long timeout = plan.getTimeout(test);
+        if(timeout > 0) {
+            OOPWatchdog.invoke(test, copyObject, workerCopy(copyObject, run.getSnapshotStats()),
+                    timeout);
+        } else {
+            test.invoke(copyObject);
         }
-        return result;
     }
 
     /**
@@ -333,222 +891,159 @@ public class OOPUnitCore {
     /**
      * Runs either OOPBefore or OOPAfter annotated methods, and throws potential exceptions
      * from running these methods onwards in case they fail
-     * @param annotatedMethods: dictionary of the OOPUnit methods, listed in the desired order
+     * @param plan: the test class's plan, which lists the OOPUnit methods in the desired order
      * @param copyObject: the test class on which the methods will be invoked
      * @param annotation: invoked methods' annotation type: either OOPBefore or OOPAfter
      * @param test: the test methods that is currently being run with this set of OOPBefore and
      *            OOPAfter methods
+     * @param run: the run's context. once the run is stopped, no more methods are invoked
+     * @throws InterruptedException: in case the run was stopped (the test's result is discarded)
      * @throws Throwable: exception that might be thrown from any of the invoked methods
      * (should not be of type Error)
      */
-    private static void callBeforeAfter(Map<Class<? extends Annotation>, List<Method>>
-                                        annotatedMethods, Object copyObject,
+    private static void callBeforeAfter(OOPTestPlan plan, Object copyObject,
                                         Class<? extends Annotation> annotation,
-                                        Method test) throws Throwable {
+                                        OOPMethodInvoker test, OOPRunContext run)
+            throws Throwable {
         assert(annotation == OOPBefore.class || annotation == OOPAfter.class);
-        Method[] methods = new Method[annotatedMethods.get(annotation).size()];
-        methods = annotatedMethods.get(annotation).toArray(methods);
-        if(annotation == OOPAfter.class) {
-            reverseArray(methods);
-        }
-        //Filter out all the OOPBefore / OOPAfter methods that do not apply to this test method
-        List<Method> suitableMethods = Arrays.stream(methods)
-                .filter(m -> containsTest(m, annotation, test))
-                .collect(Collectors.toList());
-        for(Method m : suitableMethods) {
-            try {
-                //Invoke the OOPBefore / OOPAfter method
-                m.invoke(copyObject);
-            } catch (InvocationTargetException e) {
-                //Method threw an exception: pass it onwards
-                throw e.getCause();
-            } catch (IllegalAccessException e) {
-                //We shouldn't get here
-                error();
+        //The plan's index lists exactly the OOPBefore / OOPAfter methods that apply to this test
+        for(OOPMethodInvoker m : plan.getHooks(annotation, test.getName())) {
+            if(run.getBudget().isExhausted()) {
+                throw new InterruptedException();
             }
+            //Invoke the OOPBefore / OOPAfter method. An exception it throws is passed onwards
+            m.invoke(copyObject);
         }
     }
 
     /**
-     * Checks if a given OOPBefore/OOPAfter method should be invoked for a given test method
-     * @param m: the OOPBefore/OOPAfter method that needs to be checked
-     * @param annotation: annotation type: either OOPBefore or OOPAfter
-     * @param test: the test method
-     * @return true iff the method's OOPBefore / OOPAfter annotation contains the given test
-     * method's name
+     * Backs-up a given class's fields, including those that its superclasses declare
+     * @param copyObject: the class to be backed-up
+     * @param pool: the run's pool of backup holders, from which the backup's holder is acquired
+     * @param stats: the run's snapshot stats, which count the snapshot
+     * @return a backup of the object, which is a holder instance of the object's class (that's
+     * allocated without running its constructors, or reused from an earlier backup) whose fields
+     * are set in the following priority:
+     * 1) if the field's value is immutable (see {@link OOPFieldPlan.Kind#IMMUTABLE}): store it
+     * 2) if the field's class supports cloning: clone the field from the original object
+     * 3) if the field's class has a copy constructor: invoke it
+     * 4) store the original field of the given object
      */
-    private static boolean containsTest(Method m, Class<? extends Annotation> annotation,
-                                        Method test) {
-        assert(annotation == OOPBefore.class || annotation == OOPAfter.class);
-        return (annotation == OOPBefore.class) ?
-                Arrays.asList(m.getDeclaredAnnotation(OOPBefore.class).value())
-                        .contains(test.getName()) :
-                Arrays.asList(m.getDeclaredAnnotation(OOPAfter.class).value())
-                        .contains(test.getName());
+    private static Object backup(Object copyObject, OOPBackupPool pool, OOPSnapshotStats stats) {
+        Object backupObject = null;
+        try {
+            backupObject = pool.acquire(copyObject.getClass());
+            stats.recordSnapshot();
+            stats.recordCopy(backupObject);
+            copyObjectFields(backupObject, copyObject, stats);
+        } catch (Exception e) {
+            //We shouldn't get here
+            error();
+        }
+        return backupObject;
     }
 
     /**
-     * Generic function that reverses the order in which an array's elements are indexed
-     * @param arr: array to be reversed
+     * Creates a worker's copy of the test class instance, on which a concurrent (or timed) test
+     * will run
+     * @param setupObject: the instance on which the OOPSetup methods were invoked
+     * @param stats: the run's snapshot stats, which count the copy
+     * @return a copy of the instance, whose fields are copied as described in the backup method
      */
-    private static<T> void reverseArray(T[] arr) {
-        if(arr.length == 0) {
-            return;
-        }
-        List<T> orderList = Arrays.asList(arr);
-        Collections.reverse(orderList);
-        orderList.toArray(arr);
+    private static Object workerCopy(Object setupObject, OOPSnapshotStats stats) {
+        Object workerObject = initCopy(setupObject.getClass());
+        stats.recordSnapshot();
+        stats.recordCopy(workerObject);
+        copyObjectFields(workerObject, setupObject, stats);
+        return workerObject;
     }
 
     /**
-     * Backs-up a given class's declared fields
-     * @param copyObject: the class to be backed-up
-     * @return a backup of the object, which is created by calling the given object's constructor
-     * and setting its declared class fields in the following priority:
-     * 1) if the field's class supports cloning: clone the field from the original object
-     * 2) if the field's class has a copy constructor: invoke it
-     * 3) store the original field of the given object
+     * @param object: a test class instance
+     * @param fields: the field plan of the instance's class
+     * @return the values of the plan's fields in the instance (not copied)
      */
-    private static Object backup(Object copyObject) {
-        Object backupObject = null;
-        try {
-            backupObject = initCopy(copyObject.getClass());
-            copyObjectFields(backupObject, copyObject);
-        } catch (Exception e) {
-            //We shouldn't get here
-            error();
+    private static Object[] fieldValues(Object object, OOPFieldPlan fields) {
+        Object[] values = new Object[fields.getFieldCount()];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = fields.get(i, object);
         }
-        return backupObject;
+        return values;
     }
 
     /**
-     * Copies all of the class's declared fields' values
-     * @see #backup(Object)
+     * Copies the values of all of the fields of the class's hierarchy
+     * @see #backup(Object, OOPBackupPool, OOPSnapshotStats)
      * @param target: target class to which the fields' values will be copied
      * @param source: source class from which the fields' values will be copied
+     * @param stats: the run's snapshot stats, which count the copied values
      */
-    private static void copyObjectFields(Object target, Object source) {
-        try {
-            for (Field field : source.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-                field.set(target, fieldBackup(field.get(source)));
+    private static void copyObjectFields(Object target, Object source, OOPSnapshotStats stats) {
+        OOPFieldPlan fieldPlan = OOPFieldPlan.of(source.getClass());
+        //Primitive values are copied without boxing, and are immutable
+        fieldPlan.copyPrimitives(target, source);
+        for(int i = 0; i < fieldPlan.getFieldCount(); i++) {
+            if(fieldPlan.isPrimitive(i)) {
+                stats.recordElided();
+            } else if(fieldPlan.isImmutable(i)) {
+                //The field's type is immutable: its value is shared, without examining it
+                fieldPlan.set(i, target, fieldPlan.get(i, source));
+                stats.recordElided();
+            } else {
+                fieldPlan.set(i, target, fieldBackup(fieldPlan.get(i, source), stats));
             }
-        } catch (Exception e) {
-            //We shouldn't get here
-            error();
         }
     }
 
     /**
      * Copies a class's field's value in the appropriate priority, as described in the backup method
-     * @see #backup(Object)
+     * @see #backup(Object, OOPBackupPool, OOPSnapshotStats)
      * @param field: the source field to be copied
+     * @param stats: the run's snapshot stats, which count the copied value
      * @return a field that was copied from the given field
      */
-    private static Object fieldBackup(Object field) {
+    private static Object fieldBackup(Object field, OOPSnapshotStats stats) {
         if(field == null) {
             return null;
         }
-        Class<?> c = field.getClass();
-
-        //Check if the object supports cloning:
-        Class<?> current = field.getClass();
-        while(current != null) {
-            try {
-                Method cloneMethod = current.getDeclaredMethod("clone");
-                //Found a clone method
-                cloneMethod.setAccessible(true);
-                return cloneMethod.invoke(field); //Will fail if the field is not cloneable
-            } catch (NoSuchMethodException e) {
-                //Current class does not support cloning: keep traversing the hierarchy tree
-            } catch (InvocationTargetException e) {
-                //Can't clone the field: clone method threw CloneNotSupportedException
-                break;
-            } catch (IllegalAccessException e) {
-                //We shouldn't get here
-                error();
-            }
-            current = current.getSuperclass();
-        }
-
-        //Check if the object has a copy constructor:
-        try {
-            Constructor<?> copyCtor = c.getDeclaredConstructor(c);
-            copyCtor.setAccessible(true);
-            return copyCtor.newInstance(field);
-        } catch (Exception e) {
-            //The object does not have a copy constructor
-        }
-
-        //Object supports neither cloning nor copy constructor: the backup is the field itself
-        return field;
-    }
-
-    /**
-     * Filters out and sorts the OOPTest methods in the order in which they should be invoked
-     * @param OOPTests: list of the OOPTest methods gathered from the test class
-     * @param testClass: the class on which the tests will be invoked
-     * @param tag: the tag that all the invoked OOPTest methods should have
-     * @return a sorted list of OOPTest methods, filtered by the given tag:
-     * if the given tag is an empty string "" - all OOPTest methods are qualified.
-     * test methods' order will take place only if the test class's OOPTestClass annotation is
-     * marked with the ORDERED enum instance
-     * @throws IllegalArgumentException: in case the class isn't OOPTestClass annotated
-     */
-    private static List<Method> sortOOPTests(List<Method> OOPTests, Class<?> testClass, String tag)
-            throws IllegalArgumentException {
-        if(testClass == null || testClass.getDeclaredAnnotation(OOPTestClass.class) == null) {
-            //Given testClass is not annotated by OOPTestClass!
-            throw new IllegalArgumentException();
+        //The copier of the field's class is resolved once, so copying involves no lookups
+        OOPCopier copier = OOPCopier.of(field.getClass());
+        if(copier.getKind() == OOPFieldPlan.Kind.IMMUTABLE) {
+            //The value can't be changed: the backup is the field itself
+            stats.recordElided();
+            return field;
         }
-
-        assert(testClass.getDeclaredAnnotation(OOPTestClass.class) != null);
-
-        //Filter out the methods that aren't tagged with the desired tag
-        Method[] currentTestMethods = new Method[OOPTests.size()];
-        List<Method> tagsFiltered =  Arrays.stream(OOPTests.toArray(currentTestMethods))
-                .filter(m->m.getDeclaredAnnotation(OOPTest.class).tag().equals(tag) ||
-                        (tag.equals(defaultTag)))
-                .collect(Collectors.toList());
-        if(testClass.getDeclaredAnnotation(OOPTestClass.class).value() ==
-                OOPTestClass.OOPTestClassType.UNORDERED) {
-            //No order is required for the test methods: do not sort methods
-            return tagsFiltered;
+        Object copy = copier.copy(field);
+        if(copy != field) {
+            stats.recordCopy(copy);
         }
-        //Test class is ORDERED: sort the methods according to their OOPTest annotations' order
-        currentTestMethods = new Method[tagsFiltered.size()];
-        return Arrays.stream(tagsFiltered.toArray(currentTestMethods))
-                .sorted(Comparator.comparingInt(m ->
-                        m.getDeclaredAnnotation(OOPTest.class).order()))
-                .collect(Collectors.toList());
+        return copy;
     }
 
     /**
      * invokes all of class's the setup methods, with no defined order.
      * Assumption: the setup methods do not throw exceptions
-     * @param annotatedMethods: dictionary of the OOPUnit methods, listed in the desired order
+     * @param plan: the test class's plan, which lists the OOPUnit methods in the desired order
      * @param copyObject: the class on which the setup methods will be invoked
+     * @param budget: the run's failure budget. once the run is stopped (i.e. it was cancelled), no
+     *              more methods are invoked
      */
-    private static void callSetupMethods(Map<Class <? extends Annotation>, List<Method>>
-                                                 annotatedMethods, Object copyObject) {
-        try {
-            /*
-             * Run all of the OOPSetup annotated methods, starting with the top of the hierarchy
-             * tree, excluding overridden methods
-             */
-            Method[] setupMethods = new Method[annotatedMethods.get(OOPSetup.class).size()];
-            Arrays.stream(annotatedMethods.get(OOPSetup.class).toArray(setupMethods))
-                    .forEach(m -> {
-                        try {
-                            m.invoke(copyObject);
-                        } catch (Exception e) {
-                            //We shouldn't get here
-                            error();
-                        }
-                    });
-        } catch (Exception e) {
-            //We shouldn't get here
-            error();
+    private static void callSetupMethods(OOPTestPlan plan, Object copyObject,
+                                         OOPFailureBudget budget) {
+        /*
+         * Run all of the OOPSetup annotated methods, starting with the top of the hierarchy
+         * tree, excluding overridden methods
+         */
+        for(OOPMethodInvoker m : plan.getSetupMethods()) {
+            if(budget.isExhausted()) {
+                return;
+            }
+            try {
+                m.invoke(copyObject);
+            } catch (Throwable e) {
+                //We shouldn't get here
+                error();
+            }
         }
     }
 
@@ -569,173 +1064,4 @@ public class OOPUnitCore {
         }
         return null;
     }
-
-    /**
-     * Returns the correct OOPUnit annotation for a given method.
-     * Assumption: a method will not be annotated by several OOPUnit annotations
-     * @param m: the method to be checked
-     * @return the correct OOPUnit annotation if exists, or null otherwise
-     */
-    private static Annotation getOOPUnitAnnotation(Method m) {
-        //List of all the currently supported OOP annotations' names in the OOPUnit framework
-        List<String> OOPUnitAnnotationsList = new LinkedList<>
-                (Arrays.asList("OOPSetup", "OOPBefore", "OOPTest", "OOPAfter"));
-        for (Annotation annotation : m.getDeclaredAnnotations()) {
-            if(OOPUnitAnnotationsList.contains(annotation.annotationType().getSimpleName())) {
-                //Found an OOPUnit annotation for this method
-                return annotation;
-            }
-        }
-        //The method is not part of the OOPUnit framework
-        return null;
-    }
-
-    /**
-     * Returns a list that consists of relevant methods' information of the OOPUnit methods in
-     * the test class
-     * @param c: the test class from which we collect the methods' information
-     * @return a list of MethodInfo constructed as follows: the wrapper contains the method
-     * itself for each of the found methods, along with its OOPUnit annotation type, its name,
-     * and its access level
-     */
-    private static List<MethodInfo> classOOPMethods(Class<?> c) {
-        Stack<MethodInfo> stack = new Stack<>();
-        Class<?> current = c;
-        while(current.getSuperclass() != null) {
-            for(Method m : current.getDeclaredMethods()) {
-                Annotation methodOOPAnnotation = getOOPUnitAnnotation(m);
-                if(methodOOPAnnotation == null) {
-                    //Current method isn't part of the OOPUnit framework
-                    continue;
-                }
-                //Fill all of the MethodInfo wrapper class's information:
-                MethodInfo currentMethodInfo = new MethodInfo(m,
-                        Modifier.toString(m.getModifiers()), m.getName(), methodOOPAnnotation);
-                if(stack.search(currentMethodInfo) == -1) {
-                    //The current method should be invoked: add it to the stack
-                    stack.push(currentMethodInfo);
-                }
-            }
-            current = current.getSuperclass();
-        }
-        List<MethodInfo> allOOPMethods = new LinkedList<>();
-        while(!stack.isEmpty()) {
-            //Load method info from the stack into the list
-            allOOPMethods.add(stack.pop());
-        }
-        return allOOPMethods;
-    }
-
-    /**
-     * Returns a dictionary that consists of a list of methods for each OOPUnit annotation type.
-     * @param c: the test class from which the OOPUnit methods are gathered from
-     * @param tag: the tag that filters out OOPTests that shouldn't be invoked
-     * @return a dictionary that consists of a list of methods for each OOPUnit annotation type.
-     * the dictionary's methods are sorted according to the order in which they should be invoked.
-     * additionally, the OOPTest methods are filtered out according to the given tag,
-     * and sorted if the test class is set to be ordered
-     */
-    private static Map<Class<? extends Annotation>,List<Method>> getOOPMethods(Class<?> c,
-                                                                                String tag) {
-        Map<Class<? extends Annotation>,List<Method>> methodsDict = new HashMap<>();
-        //Initialize an empty list of methods for each possible method annotation:
-        methodsDict.put(OOPSetup.class, new LinkedList<>());
-        methodsDict.put(OOPBefore.class, new LinkedList<>());
-        methodsDict.put(OOPTest.class, new LinkedList<>());
-        methodsDict.put(OOPAfter.class, new LinkedList<>());
-        /*
-         * Fill the lists with the appropriate methods for each annotation.
-         * Lists are ordered from the top of the hierarchy tree, to the bottom
-         */
-        for(MethodInfo info : classOOPMethods(c)) {
-            // Add all the OOPUnit annotated methods in the class's hierarchy to the dictionary
-            methodsDict.get(info.getAnnotation().annotationType()).add(info.method);
-        }
-        //Sort all of the OOPTest annotated methods according to the user's given order
-        methodsDict.put(OOPTest.class,
-                sortOOPTests(methodsDict.get(OOPTest.class), c, tag));
-        return methodsDict;
-    }
-
-    /**
-     * Simple record type that serves as wrapper for a given method.
-     * Contains the following information:
-     *  The method itself {@link MethodInfo#method},
-     *  The method's access modifier, as a string {@link MethodInfo#access},
-     *  The method's name {@link MethodInfo#name},
-     *  The method's OOPUnit annotation (or null if one doesn't exist) {@link MethodInfo#annotation}
-     *
-     * Supports basic get/set methods. MethodInfo overrides comparison: compares by name and access
-     * level only. Purpose is to also consider a method equal to another method that it overrides.
-     * @see MethodInfo#equals
-     */
-    private static class MethodInfo {
-        Method method;
-        String access;
-        String name;
-        Annotation annotation;
-
-        private MethodInfo(Method method, String access, String name, Annotation annotation) {
-            method.setAccessible(true);
-            this.method = method;
-            this.access = access;
-            this.name = name;
-            this.annotation = annotation;
-        }
-
-        /*private Method getMethod() {
-            return method;
-        }
-
-        private String getAccess() {
-            return access;
-        }
-
-        private String getName() {
-            return name;
-        }
-        * These methods will never be used - we keep those here for good practice
-        */
-
-        private Annotation getAnnotation() {
-            return annotation;
-        }
-
-        /**
-         * The comparison method for the MethodInfo type
-         * @param obj: object to be compared with
-         * @return 'true' iff the object is an instance of MethodInfo and:
-         *  1) if obj's access level is either static or private (or both):
-         *     compare by the method itself
-         *  2) otherwise, compare by the methods' names
-         */
-        @Override
-        public boolean equals(Object obj) {
-            if(obj == null) {
-                return false;
-            }
-            if(!(obj instanceof MethodInfo)) {
-                return false;
-            }
-            MethodInfo toCompare = (MethodInfo) obj;
-            if(access.contains("static") || access.contains("private")) {
-                return toCompare.method.equals(method);
-            }
-            return name.equals(toCompare.name);
-        }
-
-        @Override
-        public int hashCode() {
-            int result = name.hashCode() * 2;
-            if(access.contains("private") || access.contains("static")) {
-                result+=1;
-            }
-            return result;
-        }
-
-        @Override
-        public String toString() {
-            return (access + " void " + name + "()");
-        }
-    }
 }
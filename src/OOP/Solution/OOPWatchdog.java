@@ -0,0 +1,162 @@
+package OOP.Solution;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Enforces the timeouts of OOPTest methods.
+ * A timed test runs on a (reused) runner thread, while the caller waits for its outcome. A single
+ * shared scheduler thread - the watchdog - fires at the test's deadline: it takes the stack trace
+ * of the stuck runner thread, interrupts it, and releases the caller, so that a hung test can't
+ * stall the whole run. The stuck runner thread is abandoned (it is a daemon thread).
+ * Since an abandoned test might keep running, the test runs on its own copy of the test class
+ * instance, which is merged into the instance only if the test finishes in time; the copy of a
+ * test that times out is abandoned along with it, so the stuck test never changes the instance
+ * (apart from the objects that the copy shares with it, as a worker's copy does). The outcome of
+ * each test is decided under a lock, so the runner either merges its copy before the caller
+ * proceeds, or is interrupted before it finishes; a runner never carries an interrupt into the
+ * next test that it runs.
+ * @see OOPTest#timeout()
+ * @see OOPTestClass#timeout()
+ */
+final class OOPWatchdog {
+
+    //Attribute: the shared scheduler thread, which fires at the deadlines of all the timed tests
+    private static final ScheduledExecutorService watchdog =
+            Executors.newSingleThreadScheduledExecutor(
+                    OOPExecutors.daemonThreads("oopunit-watchdog-"));
+
+    //Attribute: the runner threads of timed tests, which are reused between tests
+    private static final ExecutorService runners =
+            Executors.newCachedThreadPool(OOPExecutors.daemonThreads("oopunit-timed-test-"));
+
+    private OOPWatchdog() {
+    }
+
+    /**
+     * Invokes a test method on a copy of the test class instance, and waits until it finishes or
+     * until its timeout expires. In case the test finishes in time (whether it threw an exception
+     * or not), the copy's fields are merged into the instance
+     * @param test: the test method
+     * @param target: the test class instance
+     * @param isolated: the copy of the instance on which the method is invoked
+     * @param timeoutMillis: the test's positive timeout, in milliseconds
+     * @throws TimeoutError: in case the test did not finish in time
+     * @throws Throwable: the exception that was thrown by the test method
+     */
+    static void invoke(OOPMethodInvoker test, Object target, Object isolated, long timeoutMillis)
+            throws Throwable {
+        assert(timeoutMillis > 0);
+        //The test's outcome: null for a normal completion, or the exception it threw. it's
+        //completed (and the runner is interrupted) only while holding the lock
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        Object lock = new Object();
+        //The test's runner thread, while it runs the test
+        AtomicReference<Thread> runner = new AtomicReference<>();
+        long startTime = System.nanoTime();
+        //The runner continues the caller's recording of the test's classes
+        Set<String> recording = OOPImpactRecorder.current();
+        runners.execute(() -> {
+            synchronized(lock) {
+                if(outcome.isDone()) {
+                    //The test timed out (or the caller gave up) before it started
+                    return;
+                }
+                runner.set(Thread.currentThread());
+            }
+            Throwable thrown = null;
+            OOPImpactRecorder.resume(recording);
+            try {
+                test.invoke(isolated);
+            } catch (Throwable e) {
+                thrown = e;
+            } finally {
+                OOPImpactRecorder.resume(null);
+            }
+            synchronized(lock) {
+                runner.set(null);
+                if(!outcome.isDone()) {
+                    merge(target, isolated);
+                    outcome.complete(thrown);
+                }
+            }
+            //The runner thread is reused: clear an interrupt that was aimed at this test. no
+            //interrupt follows, since the runner is no longer set
+            Thread.interrupted();
+        });
+        ScheduledFuture<?> alarm = watchdog.schedule(() -> {
+            synchronized(lock) {
+                Thread stuck = runner.get();
+                TimeoutError timeout = new TimeoutError(test.getName(), timeoutMillis,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime),
+                        (stuck == null) ? new StackTraceElement[0] : stuck.getStackTrace());
+                if(outcome.complete(timeout) && stuck != null) {
+                    stuck.interrupt();
+                }
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        Throwable thrown;
+        try {
+            thrown = outcome.get();
+        } catch (InterruptedException e) {
+            //The caller was interrupted while waiting: pass the interrupt to the test
+            synchronized(lock) {
+                Thread stuck = runner.get();
+                if(outcome.complete(e) && stuck != null) {
+                    stuck.interrupt();
+                }
+            }
+            throw e;
+        } finally {
+            alarm.cancel(false);
+        }
+        if(thrown != null) {
+            throw thrown;
+        }
+    }
+
+    /**
+     * Merges the copy of a test that finished in time into the test class instance
+     * @param target: the test class instance
+     * @param isolated: the test's copy of the instance
+     */
+    private static void merge(Object target, Object isolated) {
+        OOPFieldPlan fieldPlan = OOPFieldPlan.of(target.getClass());
+        fieldPlan.copyPrimitives(target, isolated);
+        for(int i = 0; i < fieldPlan.getFieldCount(); i++) {
+            if(!fieldPlan.isPrimitive(i)) {
+                fieldPlan.set(i, target, fieldPlan.get(i, isolated));
+            }
+        }
+    }
+
+    /**
+     * Thrown in place of a test that did not finish in time.
+     * Its message consists of the test's timeout, the elapsed time, and a dump of the stuck
+     * thread's stack
+     */
+    static final class TimeoutError extends Error {
+
+        private static final long serialVersionUID = 1L;
+
+        private TimeoutError(String testName, long timeoutMillis, long elapsedMillis,
+                             StackTraceElement[] stack) {
+            super(dump(testName, timeoutMillis, elapsedMillis, stack));
+        }
+
+        /**
+         * @return the timeout's message: the elapsed time, followed by the stuck thread's stack
+         */
+        private static String dump(String testName, long timeoutMillis, long elapsedMillis,
+                                   StackTraceElement[] stack) {
+            StringBuilder message = new StringBuilder()
+                    .append(testName).append(" timed out after ").append(elapsedMillis)
+                    .append(" ms (timeout: ").append(timeoutMillis).append(" ms)");
+            for(StackTraceElement frame : stack) {
+                message.append(System.lineSeparator()).append("\tat ").append(frame);
+            }
+            return message.toString();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package OOP.Solution;
+
+import OOP.Provided.OOPResult;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * The compact binary format in which a worker JVM receives the classes it should run and sends
+ * their results back, over a pipe.
+ * A request consists of the test class's name, the tag and the run options (the files of the
+ * result cache and the impact map are sent by their absolute paths, so the worker shares them;
+ * the listeners are notified by the launcher, as the results arrive). A response is a
+ * stream of frames: a result frame for every test as it finishes (the test's name, result type,
+ * message and timings), followed by a summary frame (the run's duration and the worker's used
+ * heap after the run). In case the class couldn't be run, the stream ends with a failure message
+ * instead.
+ * Strings are written as their length followed by their UTF-8 bytes, so (unlike
+ * {@link DataOutput#writeUTF(String)}) long messages, e.g. stack dumps, are not limited in size.
+ * @see OOPWorker
+ */
+final class OOPWire {
+
+    //Attribute: the first int of every request and response, which identifies the format
+    private static final int magic = 0x4F4F5055;
+
+    //Attribute: the response kinds
+    private static final byte summaryResponse = 0;
+    private static final byte failureResponse = 1;
+    private static final byte resultResponse = 2;
+
+    //Attribute: the flags of a result's optional parts
+    private static final byte hasMessage = 1;
+    private static final byte hasTimings = 2;
+
+    private OOPWire() {
+    }
+
+    /**
+     * A request to run a single test class, as received by a worker
+     */
+    static final class Request {
+
+        //Attribute: the binary name of the test class
+        private final String className;
+
+        //Attribute: the tag of the tests that should run
+        private final String tag;
+
+        //Attribute: the run options
+        private final OOPRunOptions options;
+
+        Request(String className, String tag, OOPRunOptions options) {
+            this.className = className;
+            this.tag = tag;
+            this.options = options;
+        }
+
+        String getClassName() {
+            return className;
+        }
+
+        String getTag() {
+            return tag;
+        }
+
+        OOPRunOptions getOptions() {
+            return options;
+        }
+    }
+
+    /**
+     * A worker's response to a request: the class's summary, and the worker's state after the run
+     */
+    static final class Response {
+
+        //Attribute: the summary of the class's run
+        private final OOPTestSummary summary;
+
+        //Attribute: the amount of heap bytes that the worker used after the run
+        private final long heapUsedBytes;
+
+        Response(OOPTestSummary summary, long heapUsedBytes) {
+            this.summary = summary;
+            this.heapUsedBytes = heapUsedBytes;
+        }
+
+        OOPTestSummary getSummary() {
+            return summary;
+        }
+
+        long getHeapUsedBytes() {
+            return heapUsedBytes;
+        }
+    }
+
+    /**
+     * @param out: the stream to the worker
+     * @param request: the request to run a test class
+     * @throws IOException: in case the request couldn't be written
+     */
+    static void writeRequest(DataOutput out, Request request) throws IOException {
+        OOPRunOptions options = request.getOptions();
+        out.writeInt(magic);
+        writeString(out, request.getClassName());
+        writeString(out, request.getTag());
+        out.writeBoolean(options.isParallel());
+        out.writeInt(options.getParallelism());
+        out.writeBoolean(options.isVirtualThreads());
+        out.writeInt(options.getMaxConcurrency());
+        out.writeBoolean(options.isOrderedWaves());
+        out.writeInt(options.getFailureBudget());
+        out.writeByte(options.getSnapshotMode().ordinal());
+        out.writeLong(options.getSnapshotMemoryBudget());
+        out.writeInt(options.getShardIndex());
+        out.writeInt(options.getShardCount());
+        writePath(out, options.getResultCache());
+        writePath(out, options.getImpactMap());
+        Set<String> changedClasses = options.getChangedClasses();
+        out.writeInt((changedClasses == null) ? -1 : changedClasses.size());
+        if(changedClasses != null) {
+            for(String changedClass : changedClasses) {
+                writeString(out, changedClass);
+            }
+        }
+    }
+
+    /**
+     * @param in: the stream from the launcher
+     * @return the request that was read
+     * @throws IOException: in case the request couldn't be read (e.g. the stream has ended)
+     */
+    static Request readRequest(DataInput in) throws IOException {
+        checkMagic(in.readInt());
+        String className = readString(in);
+        String tag = readString(in);
+        OOPRunOptions options = OOPRunOptions.defaults()
+                .parallel(in.readBoolean())
+                .parallelism(in.readInt())
+                .virtualThreads(in.readBoolean())
+                .maxConcurrency(in.readInt())
+                .orderedWaves(in.readBoolean());
+        int failureBudget = in.readInt();
+        if(failureBudget > 0) {
+            options.failureBudget(failureBudget);
+        }
+        int snapshotMode = in.readByte();
+        if(snapshotMode < 0 || snapshotMode >= OOPSnapshotMode.values().length) {
+            throw new IOException("Corrupted OOPUnit worker stream");
+        }
+        options.snapshotMode(OOPSnapshotMode.values()[snapshotMode]);
+        long snapshotMemoryBudget = in.readLong();
+        if(snapshotMemoryBudget <= 0) {
+            throw new IOException("Corrupted OOPUnit worker stream");
+        }
+        options.snapshotMemoryBudget(snapshotMemoryBudget);
+        int shardIndex = in.readInt();
+        options.shard(shardIndex, in.readInt())
+                .resultCache(readPath(in))
+                .impactMap(readPath(in));
+        int changedCount = in.readInt();
+        if(changedCount >= 0) {
+            List<String> changedClasses = new ArrayList<>(changedCount);
+            for(int i = 0; i < changedCount; i++) {
+                changedClasses.add(readString(in));
+            }
+            options.affectedBy(changedClasses);
+        }
+        return new Request(className, tag, options);
+    }
+
+    /**
+     * @param out: the stream to the launcher
+     * @param testName: the name of a test that finished
+     * @param result: the test's result
+     * @throws IOException: in case the result couldn't be written
+     */
+    static void writeResult(DataOutput out, String testName, OOPResult result)
+            throws IOException {
+        OOPTimingStats timings = (result instanceof OOPResultImpl) ?
+                ((OOPResultImpl) result).getTimings() : null;
+        out.writeInt(magic);
+        out.writeByte(resultResponse);
+        writeString(out, testName);
+        out.writeByte(result.getResultType().ordinal());
+        out.writeByte((result.getMessage() != null ? hasMessage : 0) |
+                (timings != null ? hasTimings : 0));
+        if(result.getMessage() != null) {
+            writeString(out, result.getMessage());
+        }
+        if(timings != null) {
+            out.writeInt(timings.getIterations());
+            out.writeLong(timings.getMinNanos());
+            out.writeLong(timings.getMeanNanos());
+            out.writeLong(timings.getP50Nanos());
+            out.writeLong(timings.getP99Nanos());
+        }
+    }
+
+    /**
+     * Ends a class's response, whose results were already written
+     * @param out: the stream to the launcher
+     * @param durationNanos: the wall-clock duration of the class's run, in nanoseconds
+     * @param heapUsedBytes: the amount of heap bytes that the worker uses after the run
+     * @throws IOException: in case the summary couldn't be written
+     */
+    static void writeSummary(DataOutput out, long durationNanos, long heapUsedBytes)
+            throws IOException {
+        out.writeInt(magic);
+        out.writeByte(summaryResponse);
+        out.writeLong(durationNanos);
+        out.writeLong(heapUsedBytes);
+    }
+
+    /**
+     * Writes a whole summary as a response, i.e. its results followed by the summary itself
+     * (e.g. for storing it, see {@link OOPResultCache})
+     * @param out: the stream to write to
+     * @param summary: the summary of a class's run
+     * @param heapUsedBytes: the amount of heap bytes that the run's JVM uses after the run
+     * @throws IOException: in case the summary couldn't be written
+     */
+    static void writeSummary(DataOutput out, OOPTestSummary summary, long heapUsedBytes)
+            throws IOException {
+        for(Map.Entry<String, OOPResult> entry : summary.getResults().entrySet()) {
+            writeResult(out, entry.getKey(), entry.getValue());
+        }
+        writeSummary(out, summary.getDurationNanos(), heapUsedBytes);
+    }
+
+    /**
+     * @param out: the stream to the launcher
+     * @param message: the reason the class couldn't be run
+     * @throws IOException: in case the failure couldn't be written
+     */
+    static void writeFailure(DataOutput out, String message) throws IOException {
+        out.writeInt(magic);
+        out.writeByte(failureResponse);
+        writeString(out, message);
+    }
+
+    /**
+     * Reads a class's response, without notifying any listener
+     * @param in: the stream to read from
+     * @return the response that was read
+     * @throws IOException: in case the response couldn't be read
+     * @throws IllegalArgumentException: in case the class couldn't be run
+     */
+    static Response readResponse(DataInput in) throws IOException, IllegalArgumentException {
+        return readResponse(in, null, Collections.emptyList());
+    }
+
+    /**
+     * Reads a class's response, and notifies the given listeners of every test's result as it's
+     * read (i.e. as the test finishes in the worker)
+     * @param in: the stream from the worker
+     * @param testClass: the class that the worker runs
+     * @param listeners: the listeners that are notified of the tests' results
+     * @return the response that was read
+     * @throws IOException: in case the response couldn't be read
+     * @throws IllegalArgumentException: in case the worker couldn't run the class
+     */
+    static Response readResponse(DataInput in, Class<?> testClass,
+                                 List<OOPTestListener> listeners)
+            throws IOException, IllegalArgumentException {
+        Map<String, OOPResult> results = new HashMap<>();
+        while(true) {
+            checkMagic(in.readInt());
+            switch(in.readByte()) {
+                case resultResponse:
+                    OOPTestEvent event = new OOPTestEvent(testClass, readString(in));
+                    event.setResult(readResult(in));
+                    results.put(event.getTestName(), event.getResult());
+                    for(OOPTestListener listener : listeners) {
+                        listener.testFinished(event);
+                    }
+                    break;
+                case summaryResponse:
+                    long durationNanos = in.readLong();
+                    long heapUsedBytes = in.readLong();
+                    return new Response(new OOPTestSummary(results, durationNanos),
+                            heapUsedBytes);
+                case failureResponse:
+                    throw new IllegalArgumentException(readString(in));
+                default:
+                    throw new IOException("Corrupted OOPUnit worker stream");
+            }
+        }
+    }
+
+    /**
+     * @param in: the stream from the worker, after a result frame's test name
+     * @return the result that was read
+     * @throws IOException: in case the result couldn't be read
+     */
+    private static OOPResult readResult(DataInput in) throws IOException {
+        OOPResult.OOPTestResult[] types = OOPResult.OOPTestResult.values();
+        int type = in.readByte();
+        if(type < 0 || type >= types.length) {
+            throw new IOException("Corrupted OOPUnit worker stream");
+        }
+        byte flags = in.readByte();
+        String message = ((flags & hasMessage) != 0) ? readString(in) : null;
+        OOPTimingStats timings = ((flags & hasTimings) != 0) ?
+                OOPTimingStats.of(in.readInt(), in.readLong(), in.readLong(), in.readLong(),
+                        in.readLong()) : null;
+        return new OOPResultImpl(types[type], message, timings);
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writePath(DataOutput out, Path path) throws IOException {
+        out.writeBoolean(path != null);
+        if(path != null) {
+            writeString(out, path.toAbsolutePath().toString());
+        }
+    }
+
+    private static Path readPath(DataInput in) throws IOException {
+        return in.readBoolean() ? Paths.get(readString(in)) : null;
+    }
+
+    private static void checkMagic(int read) throws IOException {
+        if(read != magic) {
+            //The other side does not speak this format (e.g. it wrote to the pipe by itself)
+            throw new IOException("Corrupted OOPUnit worker stream");
+        }
+    }
+}
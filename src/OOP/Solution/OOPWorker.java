@@ -0,0 +1,105 @@
+package OOP.Solution;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The entry point of a worker JVM, which runs test classes on behalf of another JVM.
+ * The worker reads requests from its standard input, runs each requested class by
+ * {@link OOPUnitCore#runClass(Class, String, OOPRunOptions)}, and writes every test's result to
+ * its standard output as the test finishes, followed by the class's summary, in the format of
+ * {@link OOPWire}. It exits once its standard input is
+ * closed, so a single worker can run many classes with a warm JIT (see {@link OOPWorkerPool}).
+ * Anything that the tests print to {@code System.out} is redirected to the worker's
+ * standard error, so it can't corrupt the summaries.
+ * @see OOPShardLauncher
+ * @see OOPWorkerPool
+ */
+public final class OOPWorker {
+
+    private OOPWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        //The standard output is kept to the summaries alone
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(FileDescriptor.out)));
+        System.setOut(System.err);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        while(true) {
+            OOPWire.Request request;
+            try {
+                request = OOPWire.readRequest(in);
+            } catch (EOFException e) {
+                //The launcher has no more requests
+                return;
+            }
+            try {
+                Class<?> testClass = Class.forName(request.getClassName());
+                OOPTestSummary summary = OOPUnitCore.runClass(testClass, request.getTag(),
+                        request.getOptions().listener(new ResultStreamer(out)));
+                Runtime runtime = Runtime.getRuntime();
+                synchronized(out) {
+                    OOPWire.writeSummary(out, summary.getDurationNanos(),
+                            runtime.totalMemory() - runtime.freeMemory());
+                }
+            } catch (ClassNotFoundException | RuntimeException e) {
+                //The class couldn't be run: the launcher fails as runClass would have failed
+                OOPWire.writeFailure(out, String.valueOf(e));
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes every test's result to the launcher as the test finishes. The tests of a concurrent
+     * run finish on their own threads, so the results are written under the stream's lock
+     */
+    private static final class ResultStreamer implements OOPTestListener {
+
+        //Attribute: the stream to the launcher
+        private final DataOutputStream out;
+
+        private ResultStreamer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void testFinished(OOPTestEvent event) {
+            synchronized(out) {
+                try {
+                    OOPWire.writeResult(out, event.getTestName(), event.getResult());
+                    out.flush();
+                } catch (IOException e) {
+                    //The launcher has died: the worker exits once it writes the summary
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new worker JVM, with the same java executable, class path and JVM options as the
+     * current JVM (except for debugger agents, which would clash with the current JVM's).
+     * The worker's standard error is inherited from the current JVM
+     * @return the worker's process
+     * @throws IOException: in case the worker couldn't be started
+     */
+    static Process start() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator +
+                "java");
+        for(String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if(!argument.startsWith("-agentlib:jdwp") && !argument.startsWith("-Xrunjdwp")) {
+                command.add(argument);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(OOPWorker.class.getName());
+        return new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+}
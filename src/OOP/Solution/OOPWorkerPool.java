@@ -0,0 +1,233 @@
+package OOP.Solution;
+
+import java.io.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A pool of long-lived local worker JVMs, which run test classes in isolation from the current
+ * JVM (e.g. from its static state), while keeping their JIT warm between classes.
+ * Every class runs on a single worker (see {@link OOPWorker}), which receives the request over
+ * its standard input and sends the class's results back over its standard output. The listeners
+ * of the class's run options are notified of every test's result as the test finishes in the
+ * worker, and of the class's finish. Workers are
+ * started lazily, and are recycled (replaced by a new JVM) after running a given amount of
+ * classes, or once their used heap exceeds a given threshold.
+ * Workers are pooled as follows, e.g.:
+ * {@code try (OOPWorkerPool pool = new OOPWorkerPool(4).recycleAfter(50)) { ... }}
+ */
+public class OOPWorkerPool implements AutoCloseable {
+
+    //Attribute: the maximal amount of workers
+    private final int size;
+
+    //Attribute: the amount of classes after which a worker is recycled, or 0 for never
+    private volatile int recycleAfter = 0;
+
+    //Attribute: the used heap bytes above which a worker is recycled, or 0 for never
+    private volatile long maxHeapBytes = 0;
+
+    //Attribute: bounds the amount of workers that exist at the same time
+    private final Semaphore permits;
+
+    //Attribute: the workers that are not running a class at the moment
+    private final Queue<Worker> idle = new ConcurrentLinkedQueue<>();
+
+    //Attribute: whether the pool was closed
+    private volatile boolean closed = false;
+
+    /**
+     * @param size: the positive maximal amount of worker JVMs
+     * @throws IllegalArgumentException: in case the given size is not positive
+     */
+    public OOPWorkerPool(int size) throws IllegalArgumentException {
+        if(size <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.size = size;
+        this.permits = new Semaphore(size);
+    }
+
+    /**
+     * Sets the amount of classes after which a worker is recycled
+     * @param classes: a positive amount of classes
+     * @return this object
+     * @throws IllegalArgumentException: in case the given amount is not positive
+     */
+    public OOPWorkerPool recycleAfter(int classes) throws IllegalArgumentException {
+        if(classes <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.recycleAfter = classes;
+        return this;
+    }
+
+    /**
+     * Sets the heap threshold above which a worker is recycled. The worker's heap is measured
+     * after each class it runs
+     * @param bytes: a positive amount of used heap bytes
+     * @return this object
+     * @throws IllegalArgumentException: in case the given amount is not positive
+     */
+    public OOPWorkerPool maxHeapBytes(long bytes) throws IllegalArgumentException {
+        if(bytes <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxHeapBytes = bytes;
+        return this;
+    }
+
+    /**
+     * Runs a test class on one of the pool's workers
+     * @param testClass: the test class
+     * @param tag: the tag of the tests that should run
+     * @param options: the class's run options
+     * @return the class's summary
+     * @throws IllegalArgumentException: in case the class isn't an OOPUnit test class, the pool
+     * was closed, or the worker failed to run the class
+     */
+    public OOPTestSummary runClass(Class<?> testClass, String tag, OOPRunOptions options)
+            throws IllegalArgumentException {
+        if(tag == null || options == null || closed) {
+            throw new IllegalArgumentException();
+        }
+        if(testClass == null || testClass.getAnnotationsByType(OOPTestClass.class).length == 0) {
+            //Given class is either not a class, or not an OOPUnit test class
+            throw new IllegalArgumentException();
+        }
+        permits.acquireUninterruptibly();
+        Worker worker = null;
+        try {
+            worker = idle.poll();
+            if(worker == null) {
+                worker = new Worker(OOPWorker.start());
+            }
+            OOPWire.Response response;
+            try {
+                response = worker.run(new OOPWire.Request(testClass.getName(), tag, options),
+                        testClass, options.getListeners());
+            } catch (IllegalArgumentException e) {
+                //The worker couldn't run the class, but it's still usable
+                release(worker, false);
+                worker = null;
+                throw e;
+            }
+            release(worker, (recycleAfter > 0 && worker.classesRun >= recycleAfter) ||
+                    (maxHeapBytes > 0 && response.getHeapUsedBytes() > maxHeapBytes));
+            worker = null;
+            for(OOPTestListener listener : options.getListeners()) {
+                listener.classFinished(testClass, response.getSummary().getDurationNanos());
+            }
+            return response.getSummary();
+        } catch (IOException e) {
+            //The worker couldn't be started, or it died while running the class
+            if(worker != null) {
+                worker.stop();
+            }
+            throw new IllegalArgumentException(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs several test classes concurrently, each on one of the pool's workers
+     * @param testClasses: the test classes to be run
+     * @param tag: the tag of the tests that should run in each class
+     * @param options: the run options of each class (the amount of classes that run concurrently
+     *               is the pool's size)
+     * @return the summary of the batch
+     * @throws IllegalArgumentException: in case one of the classes couldn't be run
+     */
+    public OOPBatchSummary runClasses(Collection<Class<?>> testClasses, String tag,
+                                      OOPRunOptions options) throws IllegalArgumentException {
+        if(testClasses == null || tag == null || options == null) {
+            throw new IllegalArgumentException();
+        }
+        return OOPBatchRunner.run(testClasses, size,
+                testClass -> runClass(testClass, tag, options));
+    }
+
+    /**
+     * Stops all of the pool's workers. Workers that are running a class are stopped once the
+     * class's run ends
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for(Worker worker = idle.poll(); worker != null; worker = idle.poll()) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * Returns a worker to the pool after it ran a class
+     * @param worker: the worker
+     * @param recycle: whether the worker should be replaced by a new one
+     */
+    private void release(Worker worker, boolean recycle) {
+        if(recycle || closed) {
+            worker.stop();
+        } else {
+            idle.add(worker);
+            if(closed && idle.remove(worker)) {
+                //The pool was closed in the meantime
+                worker.stop();
+            }
+        }
+    }
+
+    /**
+     * A single worker JVM, along with its pipes
+     */
+    private static final class Worker {
+
+        //Attribute: the worker's process
+        private final Process process;
+
+        //Attribute: the pipes to and from the worker
+        private final DataOutputStream out;
+        private final DataInputStream in;
+
+        //Attribute: the amount of classes that the worker ran
+        private int classesRun = 0;
+
+        private Worker(Process process) {
+            this.process = process;
+            this.out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        /**
+         * @param request: the request to run a class
+         * @param testClass: the requested class
+         * @param listeners: the listeners that are notified of the tests' results
+         * @return the worker's response
+         * @throws IOException: in case the worker died
+         * @throws IllegalArgumentException: in case the worker couldn't run the class
+         */
+        private OOPWire.Response run(OOPWire.Request request, Class<?> testClass,
+                                     List<OOPTestListener> listeners)
+                throws IOException, IllegalArgumentException {
+            classesRun++;
+            OOPWire.writeRequest(out, request);
+            out.flush();
+            return OOPWire.readResponse(in, testClass, listeners);
+        }
+
+        /**
+         * Stops the worker: it exits once its standard input is closed
+         */
+        private void stop() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                //The worker has already died
+            }
+            process.destroy();
+        }
+    }
+}
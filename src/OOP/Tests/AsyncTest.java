@@ -0,0 +1,120 @@
+package OOP.Tests;
+
+import OOP.Solution.*;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+
+public class AsyncTest {
+
+    static CountDownLatch blocking;
+    static volatile boolean interrupted;
+    static volatile int laterTests;
+    static volatile boolean blocks = true;
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)
+    static public class BlockingClass {
+        @OOPTest(order = 1)
+        public void quick() {
+        }
+
+        @OOPTest(order = 2)
+        public void blocks() {
+            blocking.countDown();
+            if(!blocks) {
+                return;
+            }
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        @OOPBefore({"later"})
+        public void beforeLater() {
+            laterTests++;
+        }
+
+        @OOPTest(order = 3)
+        public void later() {
+            laterTests++;
+        }
+    }
+
+    @Test
+    public void testCompletes() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            OOPRunFuture future = OOPUnitCore.runClassAsync(ParallelTest.ParallelClass.class, "",
+                    executor);
+            OOPTestSummary summary = future.get(10, TimeUnit.SECONDS);
+            assertEquals(future.getTotalTests(), future.getCompletedTests());
+            assertEquals(OOPUnitCore.runClass(ParallelTest.ParallelClass.class).getNumSuccesses(),
+                    summary.getNumSuccesses());
+
+            //An invalid class completes the future exceptionally
+            try {
+                OOPUnitCore.runClassAsync(AsyncTest.class, "", executor).get();
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        blocking = new CountDownLatch(1);
+        interrupted = false;
+        laterTests = 0;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        OOPRunFuture future = OOPUnitCore.runClassAsync(BlockingClass.class, "", executor);
+        assertTrue(blocking.await(10, TimeUnit.SECONDS));
+        assertEquals(3, future.getTotalTests());
+        assertEquals(1, future.getCompletedTests());
+        assertTrue(future.cancel(true));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+        assertTrue(interrupted);
+        assertEquals(0, laterTests);
+    }
+
+    @Test
+    public void testCancelNotCached() throws Exception {
+        Path file = Files.createTempFile("oopunit", ".cache");
+        Files.delete(file);
+        OOPRunOptions options = OOPRunOptions.defaults().resultCache(file);
+        blocking = new CountDownLatch(1);
+        laterTests = 0;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        OOPRunFuture future = OOPUnitCore.runClassAsync(BlockingClass.class, "", options,
+                executor);
+        assertTrue(blocking.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        //The cancelled run's NOT_RUN results are not replayed: the class runs again
+        blocks = false;
+        try {
+            OOPTestSummary summary = OOPUnitCore.runClass(BlockingClass.class, "", options);
+            assertFalse(summary.isReplayed());
+            assertEquals(0, summary.getNumNotRun());
+            assertEquals(3, summary.getNumSuccesses());
+            assertEquals(2, laterTests);
+            assertTrue(OOPUnitCore.runClass(BlockingClass.class, "", options).isReplayed());
+        } finally {
+            blocks = true;
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -183,6 +183,24 @@ public class Cases {
         assertEquals(0, result.getNumErrors());
         assertEquals(0, result.getNumExceptionMismatches());
     }
+
+    @Test
+    public void testTagRepeatedRuns() {
+        //The class's plan is reused between runs: filtering by a tag must not affect other runs
+        for (int i = 0; i < 3; i++) {
+            result = OOPUnitCore.runClass(testTagTestsClass.class, tag);
+            assertEquals(2, result.getNumFailures());
+            assertEquals(0, result.getNumSuccesses());
+
+            result = OOPUnitCore.runClass(testTagTestsClass.class, "noSuchTag");
+            assertEquals(0, result.getNumFailures());
+            assertEquals(0, result.getNumSuccesses());
+
+            result = OOPUnitCore.runClass(testTagTestsClass.class);
+            assertEquals(3, result.getNumSuccesses());
+            assertEquals(4, result.getNumFailures());
+        }
+    }
     /************************************************************************/
     @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)
     static public class testFailBeforeClass extends testTagTestsClass {
@@ -207,7 +225,8 @@ public class Cases {
 
         @OOPTest(order = 9)
         public void afterThrow() {
-            OOPUnitCore.assertEquals(s, before);
+            //The inherited field is restored as well
+            OOPUnitCore.assertEquals(s, afterAfter);
             OOPUnitCore.assertEquals(backMeUp, afterSetUp);
         }
     }
@@ -0,0 +1,142 @@
+package OOP.Tests;
+
+import OOP.Solution.*;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+
+public class GeneratedPlanTest {
+
+    //A test class hierarchy that covers every kind of method that a plan describes
+    private static final String[] source = {
+            "package generated;",
+            "import OOP.Provided.OOPExpectedException;",
+            "import OOP.Solution.*;",
+            "import java.util.ArrayList;",
+            "import java.util.List;",
+            "public class Planned {",
+            "    public static final List<String> calls = new ArrayList<>();",
+            "    static public class Base {",
+            "        @OOPSetup public void baseSetup() { calls.add(\"baseSetup\"); }",
+            "        @OOPBefore({\"second\", \"third\"}) public void baseBefore() {",
+            "            calls.add(\"baseBefore\");",
+            "        }",
+            "        @OOPTest(order = 5) public void overridden() { calls.add(\"base\"); }",
+            "    }",
+            "    @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)",
+            "    static public class Child extends Base {",
+            "        @OOPExceptionRule",
+            "        private OOPExpectedException expected = OOPExpectedExceptionImpl.none();",
+            "        private int field = 0;",
+            "        @OOPSetup public void setup() { calls.add(\"setup\"); }",
+            "        @OOPBefore({\"second\"}) public void before() {",
+            "            calls.add(\"before\");",
+            "            field = 1;",
+            "        }",
+            "        @OOPAfter({\"first\", \"second\"}) private void after() {",
+            "            calls.add(\"after\");",
+            "        }",
+            "        @OOPTest(order = 3) public void third() {",
+            "            calls.add(\"third\");",
+            "            OOPUnitCore.assertEquals(2, field);",
+            "        }",
+            "        @OOPTest(order = 1) public void first() { calls.add(\"first\"); }",
+            "        @OOPTest(order = 2, tag = \"tagged\") void second() throws Exception {",
+            "            calls.add(\"second\");",
+            "            expected.expect(IllegalStateException.class);",
+            "            throw new IllegalStateException();",
+            "        }",
+            "        @OOPTest(order = 4) private void privateTest() { calls.add(\"private\"); }",
+            "        @Override @OOPTest(order = 6) public void overridden() {",
+            "            calls.add(\"overridden\");",
+            "        }",
+            "    }",
+            "}"
+    };
+
+    /**
+     * Compiles the test class hierarchy, and loads it by its own class loader
+     * @param root: the directory of the source and the compiled classes
+     * @param options: javac's annotation processing options
+     * @return the compiled test class
+     */
+    private static Class<?> compile(Path root, String... options) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Path sourceFile = root.resolve("generated/Planned.java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(sourceFile, String.join("\n", source).getBytes(StandardCharsets.UTF_8));
+        String[] arguments = Stream.concat(Stream.of(options), Stream.of("-classpath",
+                System.getProperty("java.class.path"), "-d", root.toString(),
+                sourceFile.toString())).toArray(String[]::new);
+        assertEquals(0, compiler.run(null, null, null, arguments));
+        URLClassLoader loader = new URLClassLoader(new URL[]{root.toUri().toURL()},
+                GeneratedPlanTest.class.getClassLoader());
+        return Class.forName("generated.Planned$Child", true, loader);
+    }
+
+    /**
+     * Runs a compiled test class
+     * @param testClass: the test class
+     * @param tag: the tag of the tests to run
+     * @return the run's notifications, followed by the calls of the class's methods
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> run(Class<?> testClass, String tag) throws Exception {
+        List<String> calls = (List<String>) testClass.getEnclosingClass().getField("calls")
+                .get(null);
+        calls.clear();
+        ListenerTest.RecordingListener listener = new ListenerTest.RecordingListener();
+        OOPUnitCore.runClass(testClass, tag, OOPRunOptions.defaults().listener(listener));
+        listener.events.add("calls " + calls);
+        return listener.events;
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testGeneratedPlanMatchesReflection() throws Exception {
+        assertNotNull(ToolProvider.getSystemJavaCompiler());
+        Path generatedRoot = Files.createTempDirectory("oopunit-generated");
+        Path reflectiveRoot = Files.createTempDirectory("oopunit-reflective");
+        try {
+            Class<?> generated = compile(generatedRoot, "-processor",
+                    OOPTestPlanProcessor.class.getName());
+            Class<?> reflective = compile(reflectiveRoot, "-proc:none");
+            //Only the processed class has a plan
+            assertTrue(Files.exists(generatedRoot.resolve(
+                    "generated/Planned$Child" + OOPGeneratedPlan.planSuffix + ".class")));
+            assertFalse(Files.exists(reflectiveRoot.resolve(
+                    "generated/Planned$Child" + OOPGeneratedPlan.planSuffix + ".class")));
+
+            for(String tag : Arrays.asList("", "tagged")) {
+                List<String> expected = run(reflective, tag);
+                assertEquals(expected, run(generated, tag));
+            }
+            assertTrue(run(generated, "").contains("SUCCESS second"));
+            assertTrue(run(generated, "").contains("FAILURE third"));
+            assertTrue(run(generated, "").contains("SUCCESS privateTest"));
+        } finally {
+            delete(generatedRoot);
+            delete(reflectiveRoot);
+        }
+    }
+}
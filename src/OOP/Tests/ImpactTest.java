@@ -0,0 +1,177 @@
+package OOP.Tests;
+
+import OOP.Solution.*;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.function.IntSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+
+public class ImpactTest {
+
+    //The transformer that the agent installed
+    static ClassFileTransformer transformer;
+
+    //The pricing that the tests use: an instance of the instrumented Pricing, once it's loaded
+    static IntSupplier pricing = () -> 42;
+
+    /**
+     * Loaded only through the agent's transformer. Its code branches, switches, catches and
+     * allocates, so its stack map frames must be shifted correctly to pass verification
+     */
+    static public class Pricing implements IntSupplier {
+        private final StringBuilder log = new StringBuilder(String.valueOf(
+                System.nanoTime() > 0 ? "positive" : "negative"));
+
+        @Override
+        public int getAsInt() {
+            int price = 0;
+            for(int i = 0; i < 3; i++) {
+                switch(i) {
+                    case 0:
+                        price += 20;
+                        break;
+                    case 1:
+                        price += 20;
+                        break;
+                    default:
+                        price += 2;
+                }
+            }
+            try {
+                log.append(Integer.parseInt("x"));
+            } catch (NumberFormatException e) {
+                log.append(price);
+            }
+            return price;
+        }
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)
+    static public class ImpactClass {
+        @OOPTest(order = 1)
+        public void usesPricing() {
+            OOPUnitCore.assertEquals(42, pricing.getAsInt());
+        }
+
+        @OOPTest(order = 2)
+        public void independent() {
+            OOPUnitCore.assertEquals(1, 1);
+        }
+
+        @OOPTest(order = 3)
+        public void reusesPricing() {
+            //Pricing was loaded (and used) by an earlier test, and is still recorded
+            OOPUnitCore.assertEquals(42, pricing.getAsInt());
+        }
+    }
+
+    static class DefiningLoader extends ClassLoader {
+        DefiningLoader() {
+            super(ImpactTest.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Installs the agent with an instrumentation that only captures the agent's transformer
+     */
+    private static void installAgent() {
+        Instrumentation instrumentation = (Instrumentation) Proxy.newProxyInstance(
+                Instrumentation.class.getClassLoader(), new Class<?>[]{Instrumentation.class},
+                (proxy, method, args) -> {
+                    switch(method.getName()) {
+                        case "addTransformer":
+                            transformer = (ClassFileTransformer) args[0];
+                            return null;
+                        case "isRetransformClassesSupported":
+                            return false;
+                        case "getAllLoadedClasses":
+                            return new Class<?>[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        OOPImpactAgent.agentmain("", instrumentation);
+    }
+
+    /**
+     * Loads Pricing as the JVM would load it with the agent installed: its bytecode is
+     * transformed by the agent, and is then defined (and verified) by a new class loader
+     * @return an instance of the instrumented Pricing
+     */
+    private static IntSupplier loadPricing() throws Exception {
+        String name = Pricing.class.getName();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = ImpactTest.class.getResourceAsStream(
+                "/" + name.replace('.', '/') + ".class")) {
+            byte[] buffer = new byte[8192];
+            for(int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+        DefiningLoader loader = new DefiningLoader();
+        byte[] instrumented = transformer.transform(loader, name.replace('.', '/'), null, null,
+                bytes.toByteArray());
+        assertNotNull(instrumented);
+        Class<?> c = loader.define(name, instrumented);
+        return (IntSupplier) c.getConstructor().newInstance();
+    }
+
+    @Test
+    public void testSelection() throws Exception {
+        Path file = Files.createTempFile("oopunit", ".impact");
+        Files.delete(file);
+        OOPRunOptions options = OOPRunOptions.defaults().impactMap(file);
+
+        if(!OOPImpactAgent.isInstalled()) {
+            //Without the agent, nothing is recorded, and every test is affected
+            OOPUnitCore.runClass(ImpactClass.class, "", options.affectedBy(null));
+            OOPTestSummary unrecorded = OOPUnitCore.runClass(ImpactClass.class, "",
+                    options.affectedBy(Collections.singleton("no.such.Class")));
+            assertEquals(3, unrecorded.getNumSuccesses());
+            installAgent();
+        }
+        //With the test's agent, Pricing is loaded through its transformer. with an agent that was
+        //installed by -javaagent, the JVM instruments Pricing as it loads it
+        pricing = (transformer != null) ? loadPricing() : new Pricing();
+        try {
+            //Without a record, every test is affected
+            OOPTestSummary recorded = OOPUnitCore.runClass(ImpactClass.class, "",
+                    options.affectedBy(Collections.singleton("no.such.Class")));
+            assertEquals(3, recorded.getNumSuccesses());
+
+            OOPTestSummary unaffected = OOPUnitCore.runClass(ImpactClass.class, "",
+                    options.affectedBy(Collections.singleton("no.such.Class")));
+            assertEquals(3, unaffected.getNumNotRun());
+
+            //Only the tests that executed Pricing's code are affected by it
+            OOPTestSummary affected = OOPUnitCore.runClass(ImpactClass.class, "",
+                    options.affectedBy(Collections.singleton(Pricing.class.getName())));
+            assertEquals(2, affected.getNumSuccesses());
+            assertEquals(1, affected.getNumNotRun());
+
+            //Every test uses its test class
+            OOPTestSummary all = OOPUnitCore.runClass(ImpactClass.class, "",
+                    options.affectedBy(Collections.singleton(ImpactClass.class.getName())));
+            assertEquals(3, all.getNumSuccesses());
+        } finally {
+            pricing = () -> 42;
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".lock"));
+        }
+    }
+}
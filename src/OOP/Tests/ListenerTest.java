@@ -0,0 +1,125 @@
+package OOP.Tests;
+
+import OOP.Provided.OOPResult;
+import OOP.Solution.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+
+public class ListenerTest {
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)
+    static public class ListenedClass {
+        @OOPBefore({"first", "second"})
+        public void before() {
+        }
+
+        @OOPTest(order = 1)
+        public void first() {
+        }
+
+        @OOPTest(order = 2)
+        public void second() {
+            OOPUnitCore.fail();
+        }
+
+        @OOPTest(order = 3)
+        public void third() {
+        }
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.UNORDERED)
+    static public class ConcurrentClass {
+        @OOPTest
+        public void first() {
+        }
+
+        @OOPTest
+        public void second() {
+        }
+    }
+
+    static class RecordingListener implements OOPTestListener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void testStarted(OOPTestEvent event) {
+            events.add("started " + event.getTestName());
+        }
+
+        @Override
+        public void phaseFinished(OOPTestEvent event) {
+            events.add(event.getPhase() + " " + event.getTestName());
+        }
+
+        @Override
+        public void testFinished(OOPTestEvent event) {
+            events.add(event.getResult().getResultType() + " " + event.getTestName());
+        }
+
+        @Override
+        public void classFinished(Class<?> testClass, long durationNanos) {
+            events.add("finished " + testClass.getSimpleName());
+        }
+    }
+
+    @Test
+    public void testNotifications() {
+        RecordingListener listener = new RecordingListener();
+        OOPUnitCore.runClass(ListenedClass.class, "", OOPRunOptions.defaults().listener(listener));
+        List<String> expected = new ArrayList<>();
+        for(String test : new String[]{"first", "second", "third"}) {
+            expected.add("started " + test);
+            expected.add("BEFORE " + test);
+            expected.add("TEST " + test);
+            expected.add("AFTER " + test);
+            expected.add((test.equals("second") ? OOPResult.OOPTestResult.FAILURE :
+                    OOPResult.OOPTestResult.SUCCESS) + " " + test);
+        }
+        expected.add("finished ListenedClass");
+        assertEquals(expected, listener.events);
+    }
+
+    @Test
+    public void testNotRunNotifications() {
+        RecordingListener listener = new RecordingListener();
+        OOPTestSummary summary = OOPUnitCore.runClass(ListenedClass.class, "",
+                OOPRunOptions.defaults().failFast(true).listener(listener));
+        assertEquals(1, summary.getNumNotRun());
+        assertEquals("NOT_RUN third", listener.events.get(listener.events.size() - 2));
+        assertEquals(12, listener.events.size());
+    }
+
+    @Test
+    public void testListenerDoesNotBlockOtherTests() {
+        //Each test's notification waits for the other test to finish, which it can only do if
+        //the notification does not hold the run's failure budget
+        CountDownLatch finished = new CountDownLatch(2);
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        OOPTestListener listener = new OOPTestListener() {
+            @Override
+            public void testFinished(OOPTestEvent event) {
+                finished.countDown();
+                try {
+                    if(!finished.await(10, TimeUnit.SECONDS)) {
+                        timedOut.set(true);
+                    }
+                } catch (InterruptedException e) {
+                    timedOut.set(true);
+                }
+            }
+        };
+        OOPTestSummary summary = OOPUnitCore.runClass(ConcurrentClass.class, "",
+                OOPRunOptions.defaults().parallel(true).parallelism(2).listener(listener));
+        assertFalse(timedOut.get());
+        assertEquals(2, summary.getNumSuccesses());
+    }
+}
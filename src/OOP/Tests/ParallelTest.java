@@ -0,0 +1,338 @@
+package OOP.Tests;
+
+import OOP.Provided.OOPExpectedException;
+import OOP.Solution.*;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class ParallelTest {
+
+    static Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.UNORDERED)
+    static public class ParallelClass {
+        private int setupCount = 0;
+        private int[] counter = new int[1];
+        private String log = "";
+
+        @OOPSetup
+        public void setup() {
+            setupCount++;
+        }
+
+        @OOPBefore({"test1", "test2", "test3", "test4", "failing", "erroring"})
+        public void before() {
+            counter[0]++;
+        }
+
+        private void work() throws InterruptedException {
+            threads.add(Thread.currentThread().getName());
+            Thread.sleep(50);
+            //Every test runs on its own copy, so no other test's changes are visible
+            OOPUnitCore.assertEquals(1, setupCount);
+            OOPUnitCore.assertEquals(1, counter[0]);
+            OOPUnitCore.assertEquals(0, log.length());
+            log = "ran";
+        }
+
+        @OOPTest
+        public void test1() throws InterruptedException {
+            work();
+        }
+
+        @OOPTest
+        public void test2() throws InterruptedException {
+            work();
+        }
+
+        @OOPTest
+        public void test3() throws InterruptedException {
+            work();
+        }
+
+        @OOPTest
+        public void test4() throws InterruptedException {
+            work();
+        }
+
+        @OOPTest
+        public void failing() throws InterruptedException {
+            work();
+            OOPUnitCore.fail();
+        }
+
+        @OOPTest
+        public void erroring() throws Exception {
+            work();
+            throw new Exception();
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        threads.clear();
+        OOPTestSummary result = OOPUnitCore.runClass(ParallelClass.class, "",
+                OOPRunOptions.defaults().parallel(true).parallelism(3));
+        assertEquals(4, result.getNumSuccesses());
+        assertEquals(1, result.getNumFailures());
+        assertEquals(1, result.getNumErrors());
+        assertEquals(0, result.getNumExceptionMismatches());
+        assertTrue(threads.size() > 1);
+    }
+
+    @Test
+    public void testOrderedIgnoresParallel() {
+        OOPTestSummary result = OOPUnitCore.runClass(TestOrdered.class, "",
+                OOPRunOptions.defaults().parallel(true));
+        assertEquals(10, result.getNumSuccesses());
+        assertEquals(3, result.getNumFailures());
+        assertEquals(2, result.getNumErrors());
+        assertEquals(1, result.getNumExceptionMismatches());
+    }
+
+    @Test
+    public void testInheritedParallel() {
+        OOPTestSummary result = OOPUnitCore.runClass(UnorderedInheriting.class, "",
+                OOPRunOptions.defaults().parallel(true));
+        assertEquals(4, result.getNumSuccesses());
+        assertEquals(1, result.getNumFailures());
+        assertEquals(2, result.getNumErrors());
+        assertEquals(0, result.getNumExceptionMismatches());
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.UNORDERED)
+    static public class BlockingClass {
+        //Counted down by each test's OOPBefore method, which then awaits the rest of the tests,
+        //or null for not awaiting them
+        static CountDownLatch allBlocked;
+
+        //Counts the tests that blocked along with all the other tests
+        static AtomicInteger blockedTogether = new AtomicInteger();
+
+        @OOPExceptionRule
+        private OOPExpectedException expected = OOPExpectedExceptionImpl.none();
+
+        private int[] blocked = new int[1];
+
+        @OOPBefore({"block1", "block2", "block3", "block4", "block5", "block6"})
+        public void before() throws InterruptedException {
+            Thread.sleep(100);
+            CountDownLatch latch = allBlocked;
+            if(latch != null) {
+                latch.countDown();
+                if(latch.await(10, TimeUnit.SECONDS)) {
+                    blockedTogether.incrementAndGet();
+                }
+            }
+            blocked[0] = 1;
+        }
+
+        @OOPAfter({"block1", "block2", "block3", "block4", "block5", "block6"})
+        public void after() throws InterruptedException {
+            Thread.sleep(100);
+            blocked[0] = 0;
+        }
+
+        @OOPTest
+        public void block1() throws InterruptedException {
+            Thread.sleep(100);
+        }
+
+        @OOPTest
+        public void block2() throws InterruptedException {
+            Thread.sleep(100);
+        }
+
+        @OOPTest
+        public void block3() throws InterruptedException {
+            Thread.sleep(100);
+        }
+
+        //Success: the expected exception is thrown
+        @OOPTest
+        public void block4() throws Exception {
+            expected.expect(InterruptedException.class).expectMessage("stub");
+            Thread.sleep(100);
+            throw new InterruptedException("stub server closed");
+        }
+
+        //Mismatch: the wrong exception is thrown
+        @OOPTest
+        public void block5() throws Exception {
+            expected.expect(InterruptedException.class);
+            Thread.sleep(100);
+            throw new Exception();
+        }
+
+        //Error: an expected exception is never thrown
+        @OOPTest
+        public void block6() throws Exception {
+            expected.expect(InterruptedException.class);
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    public void testVirtualThreads() {
+        BlockingClass.allBlocked = null;
+        OOPTestSummary sequential = OOPUnitCore.runClass(BlockingClass.class);
+        //The six tests block at the same time, or time out
+        BlockingClass.allBlocked = new CountDownLatch(6);
+        BlockingClass.blockedTogether.set(0);
+        OOPTestSummary result = OOPUnitCore.runClass(BlockingClass.class, "",
+                OOPRunOptions.defaults().virtualThreads(true).maxConcurrency(6));
+        BlockingClass.allBlocked = null;
+        assertEquals(sequential.getNumSuccesses(), result.getNumSuccesses());
+        assertEquals(sequential.getNumFailures(), result.getNumFailures());
+        assertEquals(sequential.getNumErrors(), result.getNumErrors());
+        assertEquals(sequential.getNumExceptionMismatches(), result.getNumExceptionMismatches());
+        assertEquals(4, result.getNumSuccesses());
+        assertEquals(1, result.getNumErrors());
+        assertEquals(1, result.getNumExceptionMismatches());
+        assertEquals(6, BlockingClass.blockedTogether.get());
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.UNORDERED)
+    static public class SlowClass {
+        //Counted down by each slow test as it starts
+        static CountDownLatch started;
+
+        //Counted down by each slow test once it's interrupted
+        static CountDownLatch interrupted;
+
+        @OOPTest
+        public void fastFailure() throws InterruptedException {
+            //Fails only once all the slow tests are running
+            started.await(10, TimeUnit.SECONDS);
+            OOPUnitCore.fail();
+        }
+
+        private static void slow() throws InterruptedException {
+            started.countDown();
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        }
+
+        @OOPTest
+        public void slow1() throws InterruptedException {
+            slow();
+        }
+
+        @OOPTest
+        public void slow2() throws InterruptedException {
+            slow();
+        }
+
+        @OOPTest
+        public void slow3() throws InterruptedException {
+            slow();
+        }
+    }
+
+    @Test
+    public void testFailFast() {
+        OOPTestSummary result = OOPUnitCore.runClass(TestOrdered.class, "",
+                OOPRunOptions.defaults().failFast(true));
+        assertEquals(1, result.getNumFailures() + result.getNumErrors() +
+                result.getNumExceptionMismatches());
+        //The second test fails, and the rest are not run
+        assertEquals(1, result.getNumSuccesses());
+        assertEquals(14, result.getNumNotRun());
+
+        result = OOPUnitCore.runClass(TestOrdered.class, "",
+                OOPRunOptions.defaults().failureBudget(3));
+        assertEquals(3, result.getNumFailures() + result.getNumErrors() +
+                result.getNumExceptionMismatches());
+        assertEquals(6, result.getNumSuccesses());
+        assertEquals(7, result.getNumNotRun());
+    }
+
+    @Test
+    public void testFailFastCancelsParallel() throws InterruptedException {
+        SlowClass.started = new CountDownLatch(3);
+        SlowClass.interrupted = new CountDownLatch(3);
+        OOPTestSummary result = OOPUnitCore.runClass(SlowClass.class, "",
+                OOPRunOptions.defaults().parallel(true).parallelism(4).failFast(true));
+        assertEquals(1, result.getNumFailures());
+        assertEquals(3, result.getNumNotRun());
+        //The slow tests were interrupted instead of awaited
+        assertTrue(SlowClass.interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)
+    static public class WaveClass {
+        //Counted down by each test of the second wave, which then awaits the rest of the wave
+        static CountDownLatch secondWave;
+
+        private int value = 0;
+        private int first = 0;
+        private int second = 0;
+        private int[] counts = new int[2];
+        private String log = "";
+
+        @OOPTest(order = 1)
+        public void init() {
+            value = 1;
+        }
+
+        private static void awaitWave() throws InterruptedException {
+            secondWave.countDown();
+            //Only the tests of a concurrent wave all reach here before the timeout
+            OOPUnitCore.assertEquals(true, secondWave.await(10, TimeUnit.SECONDS));
+        }
+
+        @OOPTest(order = 2)
+        public void addFirst() throws InterruptedException {
+            first = value + 1;
+            counts[0]++;
+            awaitWave();
+        }
+
+        @OOPTest(order = 2)
+        public void addSecond() throws InterruptedException {
+            second = value + 2;
+            log = "second";
+            awaitWave();
+        }
+
+        @OOPTest(order = 2)
+        public void readOnly() throws InterruptedException {
+            awaitWave();
+            //Tests of the same wave do not see each other's changes, even once they're made
+            OOPUnitCore.assertEquals(0, first);
+            OOPUnitCore.assertEquals(1, value);
+        }
+
+        @OOPTest(order = 3)
+        public void check() {
+            OOPUnitCore.assertEquals(2, first);
+            OOPUnitCore.assertEquals(3, second);
+            OOPUnitCore.assertEquals(1, counts[0]);
+            OOPUnitCore.assertEquals("second", log);
+        }
+    }
+
+    @Test
+    public void testOrderedWaves() {
+        //The three tests of the second wave run at the same time, or time out
+        WaveClass.secondWave = new CountDownLatch(3);
+        OOPTestSummary result = OOPUnitCore.runClass(WaveClass.class, "",
+                OOPRunOptions.defaults().orderedWaves(true).parallelism(3));
+        assertEquals(5, result.getNumSuccesses());
+        assertEquals(10, OOPUnitCore.runClass(TestOrdered.class, "",
+                OOPRunOptions.defaults().orderedWaves(true)).getNumSuccesses());
+    }
+}
@@ -0,0 +1,68 @@
+package OOP.Tests;
+
+import OOP.Solution.*;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class RepeatTest {
+
+    static int invocations = 0;
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)
+    static public class RepeatedClass {
+        private int counter = 0;
+        private int[] values = new int[1];
+
+        @OOPBefore({"repeated"})
+        public void before() {
+            counter = 10;
+        }
+
+        @OOPTest(order = 1, warmup = 5, repeat = 20)
+        public void repeated() {
+            invocations++;
+            //Every invocation starts from the instance's state after the OOPBefore methods
+            OOPUnitCore.assertEquals(10, counter);
+            OOPUnitCore.assertEquals(0, values[0]);
+            counter++;
+            values[0]++;
+        }
+
+        @OOPTest(order = 2)
+        public void once() {
+            //The state of the last invocation is kept
+            OOPUnitCore.assertEquals(11, counter);
+            OOPUnitCore.assertEquals(1, values[0]);
+        }
+
+        @OOPTest(order = 3, repeat = 5)
+        public void failsOnThird() {
+            invocations++;
+            if(invocations == 28) {
+                OOPUnitCore.fail();
+            }
+        }
+    }
+
+    @Test
+    public void testRepeat() {
+        invocations = 0;
+        OOPTestSummary result = OOPUnitCore.runClass(RepeatedClass.class);
+        assertEquals(2, result.getNumSuccesses());
+        assertEquals(1, result.getNumFailures());
+        //The failure stopped the repetitions
+        assertEquals(28, invocations);
+
+        OOPTimingStats timings = result.getTimings("repeated");
+        assertEquals(20, timings.getIterations());
+        assertTrue(timings.getMinNanos() <= timings.getP50Nanos());
+        assertTrue(timings.getP50Nanos() <= timings.getP99Nanos());
+        assertTrue(timings.getMinNanos() <= timings.getMeanNanos());
+        assertNull(result.getTimings("once"));
+        assertNull(result.getTimings("failsOnThird"));
+    }
+}
@@ -0,0 +1,73 @@
+package OOP.Tests;
+
+import OOP.Solution.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class ResultCacheTest {
+
+    static int setups = 0;
+
+    @OOPTestClass(value = OOPTestClass.OOPTestClassType.UNORDERED, dependsOn = {String.class})
+    static public class CachedClass {
+        @OOPSetup
+        public void setup() {
+            setups++;
+        }
+
+        @OOPTest(tag = "pass")
+        public void passing() {
+        }
+
+        @OOPTest
+        public void failing() {
+            OOPUnitCore.fail();
+        }
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        Path file = Files.createTempFile("oopunit", ".cache");
+        Files.delete(file);
+        setups = 0;
+        OOPRunOptions options = OOPRunOptions.defaults().resultCache(file);
+        OOPTestSummary first = OOPUnitCore.runClass(CachedClass.class, "", options);
+        assertFalse(first.isReplayed());
+        OOPTestSummary second = OOPUnitCore.runClass(CachedClass.class, "", options);
+        assertTrue(second.isReplayed());
+        assertEquals(1, setups);
+        assertEquals(1, second.getNumSuccesses());
+        assertEquals(1, second.getNumFailures());
+
+        //Another tag is another run
+        assertFalse(OOPUnitCore.runClass(CachedClass.class, "pass", options).isReplayed());
+        assertEquals(2, setups);
+
+        //Running in ordered waves is another run
+        assertFalse(OOPUnitCore.runClass(CachedClass.class, "",
+                OOPRunOptions.defaults().resultCache(file).orderedWaves(true)).isReplayed());
+        assertEquals(3, setups);
+
+        //Another process's file: a corrupted line and a partial last line are ignored
+        Path shared = Files.createTempFile("oopunit", ".cache");
+        String lines = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        Files.write(shared, ("corrupted\tline\n" + lines + "partial\tli")
+                .getBytes(StandardCharsets.UTF_8));
+        OOPTestSummary replayed = OOPUnitCore.runClass(CachedClass.class, "pass",
+                OOPRunOptions.defaults().resultCache(shared));
+        assertTrue(replayed.isReplayed());
+        assertEquals(1, replayed.getNumSuccesses());
+        assertEquals(3, setups);
+        Files.delete(file);
+        Files.delete(shared);
+    }
+}
@@ -0,0 +1,88 @@
+package OOP.Tests;
+
+import OOP.Solution.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class ShardTest {
+
+    private static int total(OOPTestSummary summary) {
+        return summary.getNumSuccesses() + summary.getNumFailures() + summary.getNumErrors() +
+                summary.getNumExceptionMismatches();
+    }
+
+    @Test
+    public void testShardsPartitionTests() {
+        OOPTestSummary whole = OOPUnitCore.runClass(UnorderedInheriting.class);
+        int successes = 0, tests = 0;
+        for(int i = 0; i < 3; i++) {
+            OOPTestSummary shard = OOPUnitCore.runClass(UnorderedInheriting.class, "",
+                    OOPRunOptions.defaults().shard(i, 3));
+            successes += shard.getNumSuccesses();
+            tests += total(shard);
+        }
+        assertEquals(whole.getNumSuccesses(), successes);
+        assertEquals(total(whole), tests);
+    }
+
+    @Test
+    public void testOrderedClassStaysWhole() {
+        int wholeShards = 0;
+        for(int i = 0; i < 4; i++) {
+            OOPTestSummary shard = OOPUnitCore.runClass(TestOrdered.class, "",
+                    OOPRunOptions.defaults().shard(i, 4));
+            if(total(shard) > 0) {
+                wholeShards++;
+                assertEquals(10, shard.getNumSuccesses());
+                assertEquals(16, total(shard));
+            }
+        }
+        assertEquals(1, wholeShards);
+    }
+
+    @Test
+    public void testLauncher() {
+        OOPTestSummary whole = OOPUnitCore.runClass(UnorderedInheriting.class);
+        OOPTestSummary merged = OOPShardLauncher.runClass(UnorderedInheriting.class, "",
+                OOPRunOptions.defaults(), 3);
+        assertEquals(whole.getNumSuccesses(), merged.getNumSuccesses());
+        assertEquals(whole.getNumFailures(), merged.getNumFailures());
+        assertEquals(whole.getNumErrors(), merged.getNumErrors());
+        assertEquals(whole.getNumExceptionMismatches(), merged.getNumExceptionMismatches());
+    }
+
+    @Test
+    public void testLauncherOptions() throws IOException {
+        Path file = Files.createTempFile("oopunit", ".cache");
+        Files.delete(file);
+        try {
+            ListenerTest.RecordingListener listener = new ListenerTest.RecordingListener();
+            OOPRunOptions options = OOPRunOptions.defaults().resultCache(file).listener(listener);
+            OOPTestSummary merged = OOPShardLauncher.runClass(UnorderedInheriting.class, "",
+                    options, 2);
+            //The listener is notified of every test that any of the workers ran
+            assertEquals(total(merged) + 1, listener.events.size());
+            assertEquals("finished UnorderedInheriting",
+                    listener.events.get(listener.events.size() - 1));
+            //Each worker cached its shard, and replays it on the next launch
+            assertEquals(2, Files.readAllLines(file).size());
+            OOPTestSummary replayed = OOPShardLauncher.runClass(UnorderedInheriting.class, "",
+                    options, 2);
+            assertEquals(merged.getNumSuccesses(), replayed.getNumSuccesses());
+            assertEquals(2, Files.readAllLines(file).size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingShard() {
+        OOPRunOptions.defaults().shard(3, 3);
+    }
+}
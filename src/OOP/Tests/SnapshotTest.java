@@ -0,0 +1,227 @@
+package OOP.Tests;
+
+import OOP.Provided.OOPExpectedException;
+import OOP.Solution.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class SnapshotTest {
+
+    static final class Point {
+        private final int x;
+        private final int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.UNORDERED)
+    static public class SnapshotClass {
+        private String name = "name";
+        private int count = 0;
+        private Integer boxed = 1;
+        private Point point = new Point(1, 2);
+        private Object label = "label";
+        private List<Integer> list = new ArrayList<>();
+
+        @OOPTest
+        public void test() {
+            list.add(count++);
+        }
+    }
+
+    static class Node {
+        private int value;
+        private Node next;
+        private List<Node> children = new ArrayList<>();
+
+        Node(int value) {
+            this.value = value;
+        }
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)
+    static public class GraphClass {
+        @OOPExceptionRule
+        private OOPExpectedException expected = OOPExpectedExceptionImpl.none();
+
+        private Node root;
+
+        @OOPSetup
+        public void setup() {
+            root = new Node(1);
+            root.next = new Node(2);
+            root.next.next = root;
+            root.children.add(root.next);
+        }
+
+        //Mismatch: the instance is restored
+        @OOPTest(order = 1)
+        public void mutate() {
+            expected.expect(IllegalStateException.class);
+            root.next.value = 42;
+            root.children.add(new Node(3));
+            throw new IllegalArgumentException();
+        }
+
+        @OOPTest(order = 2)
+        public void check() {
+            OOPUnitCore.assertEquals(2, root.next.value);
+            OOPUnitCore.assertEquals(1, root.children.size());
+            OOPUnitCore.assertEquals(root, root.next.next);
+            OOPUnitCore.assertEquals(root.next, root.children.get(0));
+        }
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)
+    static public class JournalClass {
+        @OOPExceptionRule
+        private OOPExpectedException expected = OOPExpectedExceptionImpl.none();
+
+        private int count = 0;
+        private String name = "name";
+        private List<Integer> list = new ArrayList<>();
+
+        //Mismatch: the instance is restored
+        @OOPTest(order = 1)
+        public void assign() {
+            expected.expect(IllegalStateException.class);
+            count = 5;
+            throw new IllegalArgumentException();
+        }
+
+        @OOPTest(order = 2)
+        public void check() {
+            OOPUnitCore.assertEquals(0, count);
+            OOPUnitCore.assertEquals("name", name);
+        }
+    }
+
+    @Test
+    public void testJournalRestore() {
+        OOPSnapshotStats shallow = OOPUnitCore.runClass(JournalClass.class).getSnapshotStats();
+        //A SHALLOW restore writes back all of the fields
+        assertEquals(4, shallow.getValuesRestored());
+
+        OOPTestSummary journal = OOPUnitCore.runClass(JournalClass.class, "",
+                OOPRunOptions.defaults().snapshotMode(OOPSnapshotMode.JOURNAL));
+        assertEquals(1, journal.getNumExceptionMismatches());
+        assertEquals(1, journal.getNumSuccesses());
+        //Only the count and the (reset) exception rule were assigned, and nothing was copied
+        assertEquals(2, journal.getSnapshotStats().getValuesRestored());
+        assertEquals(0, journal.getSnapshotStats().getObjectsCopied());
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.ORDERED)
+    static public class FixtureClass {
+        @OOPExceptionRule
+        private OOPExpectedException expected = OOPExpectedExceptionImpl.none();
+
+        private int[] index = new int[100_000];
+        private List<Integer> list = new ArrayList<>();
+
+        //Mismatch: the instance is restored
+        @OOPTest(order = 1)
+        public void mutate() {
+            expected.expect(IllegalStateException.class);
+            index[0] = 7;
+            list.add(1);
+            throw new IllegalArgumentException();
+        }
+
+        @OOPTest(order = 2)
+        public void check() {
+            OOPUnitCore.assertEquals(0, index[0]);
+            OOPUnitCore.assertEquals(0, list.size());
+        }
+    }
+
+    @Test
+    public void testOffHeapRestore() {
+        OOPTestSummary offHeap = OOPUnitCore.runClass(FixtureClass.class, "",
+                OOPRunOptions.defaults().snapshotMode(OOPSnapshotMode.OFF_HEAP));
+        assertEquals(1, offHeap.getNumExceptionMismatches());
+        assertEquals(1, offHeap.getNumSuccesses());
+        //The index and the list are serialized off the heap, and nothing is copied on the heap
+        assertTrue(offHeap.getSnapshotStats().getBytesCopied() > 400_000);
+        assertEquals(0, offHeap.getSnapshotStats().getObjectsCopied());
+
+        //Snapshots that exceed the budget fall back to SHALLOW backups
+        OOPTestSummary fallback = OOPUnitCore.runClass(FixtureClass.class, "",
+                OOPRunOptions.defaults().snapshotMode(OOPSnapshotMode.OFF_HEAP)
+                        .snapshotMemoryBudget(1024));
+        assertEquals(1, fallback.getNumExceptionMismatches());
+        assertEquals(1, fallback.getNumSuccesses());
+        assertTrue(fallback.getSnapshotStats().getObjectsCopied() > 0);
+    }
+
+    @Test
+    public void testDeepRestore() {
+        //A shallow backup shares the graph, so the mutation is not undone
+        OOPTestSummary shallow = OOPUnitCore.runClass(GraphClass.class);
+        assertEquals(1, shallow.getNumExceptionMismatches());
+        assertEquals(1, shallow.getNumFailures());
+
+        OOPTestSummary deep = OOPUnitCore.runClass(GraphClass.class, "",
+                OOPRunOptions.defaults().snapshotMode(OOPSnapshotMode.DEEP));
+        assertEquals(1, deep.getNumExceptionMismatches());
+        assertEquals(1, deep.getNumSuccesses());
+    }
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.UNORDERED)
+    static public class ConstructedClass {
+        static final AtomicInteger constructed = new AtomicInteger();
+
+        private List<Integer> cache = new ArrayList<>();
+
+        public ConstructedClass() {
+            constructed.incrementAndGet();
+        }
+
+        @OOPTest
+        public void test1() {
+            cache.add(1);
+        }
+
+        @OOPTest
+        public void test2() {
+            cache.add(2);
+        }
+
+        @OOPTest
+        public void test3() {
+            cache.add(3);
+        }
+    }
+
+    @Test
+    public void testBackupHolders() {
+        ConstructedClass.constructed.set(0);
+        OOPTestSummary result = OOPUnitCore.runClass(ConstructedClass.class);
+        assertEquals(3, result.getNumSuccesses());
+        assertEquals(6, result.getSnapshotStats().getSnapshots());
+        //The instance is constructed once, and the backups reuse a single holder, which is
+        //allocated without running its constructor (when the JVM supports it)
+        assertTrue(ConstructedClass.constructed.get() <= 2);
+    }
+
+    @Test
+    public void testElision() {
+        OOPSnapshotStats stats = OOPUnitCore.runClass(SnapshotClass.class).getSnapshotStats();
+        //A backup before the OOPBefore methods, and another before the OOPAfter methods
+        assertEquals(2, stats.getSnapshots());
+        //Each backup copies the instance and its list, and shares the rest of its fields
+        assertEquals(4, stats.getObjectsCopied());
+        assertEquals(10, stats.getValuesElided());
+        assertTrue(stats.getBytesCopied() > 0);
+    }
+}
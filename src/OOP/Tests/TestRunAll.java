@@ -1,8 +1,14 @@
 package OOP.Tests;
 
+import OOP.Solution.OOPBatchSummary;
+import OOP.Solution.OOPRunOptions;
+import OOP.Solution.OOPUnitCore;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static OOP.Tests.TestFunctions.*;
+import static org.junit.Assert.assertEquals;
 
 /**
  * Created by elran on 08/01/17.
@@ -15,4 +21,21 @@ public class TestRunAll {
 		launchTest(UnorderedTest.class,2,0,1, 0);
 		launchTest(UnorderedInheriting.class,4,1,2, 0);
 	}
+
+	@Test
+	public void testBatch() {
+		//Run twice: the second batch is scheduled by the durations recorded in the first one
+		for (int i = 0; i < 2; i++) {
+			OOPBatchSummary result = OOPUnitCore.runClasses(Arrays.asList(TestOrdered.class,
+					TestOrderedInher.class, UnorderedTest.class, UnorderedInheriting.class),
+					OOPRunOptions.defaults().classParallelism(2));
+			assertEquals(4, result.getSummaries().size());
+			assertEquals(12, result.getSummary(TestOrderedInher.class).getNumSuccesses());
+			assertEquals(1, result.getSummary(UnorderedInheriting.class).getNumFailures());
+			assertEquals(28, result.getNumSuccesses());
+			assertEquals(7, result.getNumFailures());
+			assertEquals(7, result.getNumErrors());
+			assertEquals(2, result.getNumExceptionMismatches());
+		}
+	}
 }
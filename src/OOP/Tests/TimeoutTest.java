@@ -0,0 +1,97 @@
+package OOP.Tests;
+
+import OOP.Solution.*;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class TimeoutTest {
+
+    @OOPTestClass(value = OOPTestClass.OOPTestClassType.ORDERED, timeout = 300)
+    static public class TimedClass {
+        private int value = 0;
+        private int afterCount = 0;
+
+        @OOPAfter({"hang"})
+        public void after() {
+            afterCount++;
+        }
+
+        @OOPTest(order = 1)
+        public void hang() throws InterruptedException {
+            value = 1;
+            Thread.sleep(60_000);
+        }
+
+        @OOPTest(order = 2)
+        public void restored() {
+            //The timed-out test's changes were rolled back, and its OOPAfter method still ran
+            OOPUnitCore.assertEquals(0, value);
+            OOPUnitCore.assertEquals(1, afterCount);
+        }
+
+        @OOPTest(order = 3, timeout = 5_000)
+        public void slow() throws InterruptedException {
+            Thread.sleep(400);
+        }
+
+        @OOPTest(order = 4)
+        public void failing() {
+            OOPUnitCore.fail();
+        }
+
+        @OOPTest(order = 5, timeout = 100)
+        public void ownTimeout() throws InterruptedException {
+            Thread.sleep(250);
+        }
+    }
+
+    @OOPTestClass(value = OOPTestClass.OOPTestClassType.ORDERED, timeout = 100)
+    static public class StubbornClass {
+        private int value = 0;
+
+        @OOPTest(order = 1)
+        public void ignoresInterrupt() {
+            long end = System.nanoTime() + 400_000_000L;
+            while(System.nanoTime() < end) {
+                //Keeps running after it timed out, and after it was interrupted
+                Thread.interrupted();
+            }
+            value = 1;
+        }
+
+        @OOPTest(order = 2, timeout = 5_000)
+        public void unchanged() throws InterruptedException {
+            //The abandoned test finishes in the meantime, but it never changes this instance
+            Thread.sleep(600);
+            OOPUnitCore.assertEquals(0, value);
+            value = 2;
+        }
+
+        @OOPTest(order = 3)
+        public void merged() {
+            //The changes of a test that finished in time are kept
+            OOPUnitCore.assertEquals(2, value);
+        }
+    }
+
+    @Test
+    public void testTimeouts() {
+        long startTime = System.nanoTime();
+        OOPTestSummary summary = OOPUnitCore.runClass(TimedClass.class);
+        assertTrue(System.nanoTime() - startTime < 10_000_000_000L);
+        assertEquals(2, summary.getNumSuccesses());
+        assertEquals(1, summary.getNumFailures());
+        assertEquals(0, summary.getNumErrors());
+        assertEquals(2, summary.getNumTimeouts());
+    }
+
+    @Test
+    public void testAbandonedTestIsIsolated() {
+        OOPTestSummary summary = OOPUnitCore.runClass(StubbornClass.class);
+        assertEquals(1, summary.getNumTimeouts());
+        assertEquals(2, summary.getNumSuccesses());
+    }
+}
@@ -0,0 +1,71 @@
+package OOP.Tests;
+
+import OOP.Solution.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class WorkerPoolTest {
+
+    @OOPTestClass(OOPTestClass.OOPTestClassType.UNORDERED)
+    static public class StaticStateClass {
+        static int runs = 0;
+
+        @OOPSetup
+        public void setup() {
+            runs++;
+        }
+
+        @OOPTest
+        public void firstRunInJVM() {
+            OOPUnitCore.assertEquals(1, runs);
+        }
+    }
+
+    @Test
+    public void testRecycle() {
+        try (OOPWorkerPool pool = new OOPWorkerPool(1)) {
+            //The same worker runs the class twice: its static state is kept
+            assertEquals(1, pool.runClass(StaticStateClass.class, "",
+                    OOPRunOptions.defaults()).getNumSuccesses());
+            assertEquals(1, pool.runClass(StaticStateClass.class, "",
+                    OOPRunOptions.defaults()).getNumFailures());
+        }
+        try (OOPWorkerPool pool = new OOPWorkerPool(1).recycleAfter(1)) {
+            //Every run gets a new worker
+            for (int i = 0; i < 3; i++) {
+                assertEquals(1, pool.runClass(StaticStateClass.class, "",
+                        OOPRunOptions.defaults()).getNumSuccesses());
+            }
+        }
+    }
+
+    @Test
+    public void testListener() {
+        ListenerTest.RecordingListener listener = new ListenerTest.RecordingListener();
+        try (OOPWorkerPool pool = new OOPWorkerPool(1)) {
+            pool.runClass(ListenerTest.ListenedClass.class, "",
+                    OOPRunOptions.defaults().listener(listener));
+        }
+        //The worker streams every test's result as it finishes
+        assertEquals(Arrays.asList("SUCCESS first", "FAILURE second", "SUCCESS third",
+                "finished ListenedClass"), listener.events);
+    }
+
+    @Test
+    public void testBatch() {
+        try (OOPWorkerPool pool = new OOPWorkerPool(2).maxHeapBytes(1L << 30)) {
+            OOPBatchSummary result = pool.runClasses(Arrays.asList(TestOrdered.class,
+                    TestOrderedInher.class, UnorderedTest.class, UnorderedInheriting.class),
+                    "", OOPRunOptions.defaults());
+            assertEquals(12, result.getSummary(TestOrderedInher.class).getNumSuccesses());
+            assertEquals(28, result.getNumSuccesses());
+            assertEquals(7, result.getNumFailures());
+            assertEquals(7, result.getNumErrors());
+            assertEquals(2, result.getNumExceptionMismatches());
+        }
+    }
+}